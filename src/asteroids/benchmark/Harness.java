@@ -0,0 +1,248 @@
+package asteroids.benchmark;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A minimal harness to time operations on the model.
+ * An operation is first run a number of times to warm up the virtual machine, then timed over a number of
+ * measured runs. The median time per run is reported, so a single garbage collection does not skew the result.
+ * Where the virtual machine supports it, the bytes allocated by the measured runs are reported as well.
+ * The results of a suite are collected and written as JSON or CSV, so they can be compared between releases.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public final class Harness {
+
+	/**
+	 * Creates a new harness collecting the results of a suite.
+	 */
+	public Harness() {}
+
+	/**
+	 * Returns the median time (in nanoseconds) of a run of the given operation.
+	 * @param operation
+	 * 		  The operation to time.
+	 * @param warmup
+	 * 		  The number of runs before the measurement.
+	 * @param runs
+	 * 		  The number of measured runs.
+	 */
+	public static double measure(Runnable operation, int warmup, int runs) {
+		return measure(null, operation, warmup, runs);
+	}
+
+	/**
+	 * Returns the median time (in nanoseconds) of a run of the given operation.
+	 * @param setUp
+	 * 		  An operation run before every run, outside the measurement. May be null.
+	 * @param operation
+	 * 		  The operation to time.
+	 * @param warmup
+	 * 		  The number of runs before the measurement.
+	 * @param runs
+	 * 		  The number of measured runs.
+	 */
+	public static double measure(Runnable setUp, Runnable operation, int warmup, int runs) {
+		return measure(setUp, operation, warmup, runs, null);
+	}
+
+	/**
+	 * Returns the median time (in nanoseconds) of a run of the given operation.
+	 * @param allocated
+	 * 		  An array in which the number of bytes allocated by each measured run is stored. May be null.
+	 */
+	private static double measure(Runnable setUp, Runnable operation, int warmup, int runs, long[] allocated) {
+
+		for(int i = 0; i < warmup; i++) {
+			if(setUp != null) {setUp.run();}
+			operation.run();
+		}
+		long[] times = new long[runs];
+		for(int i = 0; i < runs; i++) {
+			if(setUp != null) {setUp.run();}
+			long bytes = allocated != null ? getAllocatedBytes() : 0;
+			long start = System.nanoTime();
+			operation.run();
+			times[i] = System.nanoTime() - start;
+			if(allocated != null) {allocated[i] = getAllocatedBytes() - bytes;}
+		}
+		Arrays.sort(times);
+		return times[runs/2];
+	}
+
+	/**
+	 * Returns the number of bytes allocated by the current thread so far, or -1 if the virtual machine doesn't count them.
+	 */
+	public static long getAllocatedBytes() {
+		if(!(threads instanceof com.sun.management.ThreadMXBean)) {return -1;}
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+		if(!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {return -1;}
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * The bean counting the bytes allocated by the threads of the virtual machine.
+	 */
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+	/**
+	 * Times the given operation and records the result under the given benchmark and parameter.
+	 * @param benchmark
+	 * 		  The name of the benchmark.
+	 * @param parameter
+	 * 		  The parameter of this run of the benchmark, like the number of space objects.
+	 * @param operations
+	 * 		  The number of operations performed by a single run, the result is reported per operation.
+	 * @return The result of the benchmark.
+	 */
+	public Result record(String benchmark, String parameter, int operations, Runnable setUp, Runnable operation, int warmup, int runs) {
+
+		long[] allocated = new long[runs];
+		double time = measure(setUp, operation, warmup, runs, allocated)/operations;
+		double bytes = -1;
+		if(getAllocatedBytes() != -1) {
+			long total = 0;
+			for(long run : allocated) {total += run;}
+			bytes = (double) total/runs/operations;
+		}
+		return add(new Result(benchmark, parameter, time, bytes, runs));
+	}
+
+	/**
+	 * Records the given result.
+	 * @return The given result.
+	 */
+	public Result add(Result result) {
+		results.add(result);
+		System.err.printf(Locale.ROOT, "%s [%s]: %.1f ns/op, %.1f B/op%n", result.getBenchmark(), result.getParameter(),
+				result.getNanosPerOperation(), result.getBytesPerOperation());
+		return result;
+	}
+
+	/**
+	 * Returns the results recorded by this harness.
+	 */
+	public List<Result> getResults() {
+		return results;
+	}
+
+	/**
+	 * The results recorded by this harness.
+	 */
+	private final List<Result> results = new ArrayList<Result>();
+
+	/**
+	 * Writes the recorded results in the given format, "json" or "csv".
+	 * @param format
+	 * @param writer
+	 * @throws IOException
+	 * @throws IllegalArgumentException
+	 * 		   The format is unknown.
+	 */
+	public void write(String format, Writer writer) throws IOException, IllegalArgumentException {
+
+		if(format.equals("json")) {
+			writer.write("[\n");
+			for(int i = 0; i < results.size(); i++) {
+				Result result = results.get(i);
+				writer.write(String.format(Locale.ROOT, "  {\"benchmark\": \"%s\", \"parameter\": \"%s\", \"nsPerOp\": %.3f, \"bytesPerOp\": %.1f, \"runs\": %d}%s%n",
+						result.getBenchmark(), result.getParameter(), result.getNanosPerOperation(), result.getBytesPerOperation(), result.getRuns(), i < results.size()-1 ? "," : ""));
+			}
+			writer.write("]\n");
+		}
+		else if(format.equals("csv")) {
+			writer.write("benchmark,parameter,nsPerOp,bytesPerOp,runs\n");
+			for(Result result : results) {
+				writer.write(String.format(Locale.ROOT, "%s,%s,%.3f,%.1f,%d%n",
+						result.getBenchmark(), result.getParameter(), result.getNanosPerOperation(), result.getBytesPerOperation(), result.getRuns()));
+			}
+		}
+		else {throw new IllegalArgumentException(format);}
+		writer.flush();
+	}
+
+	/**
+	 * Writes the recorded results in the given format to the given file, or to the standard output if the file is null.
+	 */
+	public void write(String format, String file) throws IOException {
+
+		if(file == null) {
+			write(format, new java.io.OutputStreamWriter(System.out));
+			return;
+		}
+		Writer writer = new FileWriter(file);
+		try {write(format, writer);}
+		finally {writer.close();}
+	}
+
+	/**
+	 * A class of results of a single benchmark run.
+	 * The bytes allocated per operation are -1 if the virtual machine doesn't count them.
+	 */
+	public static final class Result {
+
+		public Result(String benchmark, String parameter, double nanosPerOperation, double bytesPerOperation, int runs) {
+			this.benchmark = benchmark;
+			this.parameter = parameter;
+			this.nanosPerOperation = nanosPerOperation;
+			this.bytesPerOperation = bytesPerOperation;
+			this.runs = runs;
+		}
+
+		public String getBenchmark() {
+			return benchmark;
+		}
+
+		public String getParameter() {
+			return parameter;
+		}
+
+		public double getNanosPerOperation() {
+			return nanosPerOperation;
+		}
+
+		public double getBytesPerOperation() {
+			return bytesPerOperation;
+		}
+
+		public int getRuns() {
+			return runs;
+		}
+
+		private final String benchmark;
+		private final String parameter;
+		private final double nanosPerOperation;
+		private final double bytesPerOperation;
+		private final int runs;
+	}
+
+	/**
+	 * Keeps the given value alive, so the work that computed it can't be removed as dead code.
+	 * @param value
+	 */
+	public static void consume(double value) {
+		sink += value;
+	}
+
+	/**
+	 * Returns the sum of all consumed values.
+	 */
+	public static double getSink() {
+		return sink;
+	}
+
+	/**
+	 * The sum of all consumed values.
+	 */
+	private static volatile double sink = 0;
+
+}
@@ -0,0 +1,93 @@
+package asteroids.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import asteroids.model.SpaceObject;
+import asteroids.model.World;
+
+/**
+ * Compares the two layouts of the state of the space objects in a world: every space object holding its own
+ * position and velocity, and all of them kept in a space object store.
+ * For 1 000, 10 000 and 100 000 asteroids it times moving all space objects (in a world that isn't event driven)
+ * and predicting the collision of every space object with its neighbour and with a boundary.
+ * Both layouts share the code of the model, so the layout timed first shapes the profile the virtual machine
+ * compiles that code with. For clean numbers, time each layout in its own virtual machine.
+ * Usage: java asteroids.benchmark.LayoutBenchmark [objects|store] [number of space objects ...]
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public class LayoutBenchmark {
+
+	public static void main(String[] args) {
+
+		boolean[] layouts = {false, true};
+		int first = 0;
+		if(args.length > 0 && (args[0].equals("objects") || args[0].equals("store"))) {
+			layouts = new boolean[] {args[0].equals("store")};
+			first = 1;
+		}
+		int[] sizes = {1000, 10000, 100000};
+		if(args.length > first) {
+			sizes = new int[args.length - first];
+			for(int i = first; i < args.length; i++) {sizes[i - first] = Integer.parseInt(args[i]);}
+		}
+		System.out.println("objects\tlayout\tmove (ns/object)\tpredict (ns/object)");
+		for(int size : sizes) {
+			for(boolean storeBacked : layouts) {
+				run(size, storeBacked);
+			}
+		}
+	}
+
+	/**
+	 * Times both operations on a world with the given number of asteroids and prints the result.
+	 */
+	private static void run(int size, boolean storeBacked) {
+
+		final List<SpaceObject> objects = new ArrayList<SpaceObject>();
+		final World world = createWorld(size, storeBacked, objects);
+		int runs = Math.max(10, 1000000/size);
+
+		double move = Harness.measure(new Runnable() {
+			@Override
+			public void run() {
+				world.moveAllSpaceObjects(TIME_STEP);
+			}
+		}, runs, runs);
+
+		double predict = Harness.measure(new Runnable() {
+			@Override
+			public void run() {
+				double earliest = Double.POSITIVE_INFINITY;
+				for(int i = 0; i < objects.size(); i++) {
+					SpaceObject spaceobject = objects.get(i);
+					earliest = Math.min(earliest, spaceobject.getTimeToCollision(objects.get((i+1) % objects.size())));
+					earliest = Math.min(earliest, spaceobject.getTimeToBoundaryCollision());
+				}
+				Harness.consume(earliest);
+			}
+		}, runs, runs);
+
+		System.out.printf("%d\t%s\t%.1f\t%.1f%n", size, storeBacked ? "store" : "objects", move/size, predict/size);
+	}
+
+	/**
+	 * Creates a world that isn't event driven with the given number of asteroids, placed on a square grid
+	 * so they don't overlap. The asteroids are added to the given list in the order they are added to the world,
+	 * which is also the order of their entity ids in the store.
+	 */
+	static World createWorld(int size, boolean storeBacked, List<SpaceObject> objects) {
+
+		World world = Scenarios.createAsteroidField(size, 20, storeBacked, objects);
+		world.setEventDriven(false);
+		return world;
+	}
+
+	/**
+	 * The time the space objects are moved in a single run (in seconds).
+	 */
+	private static final double TIME_STEP = 0.001;
+
+}
@@ -0,0 +1,265 @@
+package asteroids.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import asteroids.model.Asteroid;
+import asteroids.model.Collision;
+import asteroids.model.CollisionQueue;
+import asteroids.model.Ship;
+import asteroids.model.SpaceObject;
+import asteroids.model.Vector;
+import asteroids.model.World;
+import asteroids.model.World.Invalidation;
+
+/**
+ * A suite of benchmarks for the physics of a world.
+ * The suite evolves four kinds of worlds: fields of 100 up to 100 000 asteroids, firefights full of bullets,
+ * dense clusters of asteroids that split in cascades when they are shot, and mostly idle worlds.
+ * Fields of asteroids are also evolved with both strategies to invalidate predicted collisions, and the rate at
+ * which the versioned strategy pops stale collisions from the queue is printed next to the times.
+ * Next to those it times the parts of an evolve step on their own: predicting the collision of two space objects,
+ * adding collisions to and removing them from the queue of a world, and predicting the collisions of the
+ * space objects that changed their motion.
+ * The results are written as JSON or CSV, to the given file or to the standard output.
+ * Usage: java asteroids.benchmark.PhysicsBenchmark [json|csv] [file] [quick]
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public class PhysicsBenchmark {
+
+	public static void main(String[] args) throws IOException {
+
+		String format = args.length > 0 ? args[0] : "json";
+		String file = args.length > 1 && !args[1].equals("quick") ? args[1] : null;
+		boolean quick = args[args.length-1].equals("quick");
+
+		Harness harness = new Harness();
+		int[] sizes = quick ? new int[] {100, 1000} : new int[] {100, 1000, 10000, 100000};
+		for(int size : sizes) {
+			evolveAsteroids(harness, size);
+			evolveIdle(harness, size);
+		}
+		for(int size : quick ? new int[] {1000} : new int[] {1000, 10000}) {
+			for(Invalidation invalidation : Invalidation.values()) {
+				evolveInvalidation(harness, size, invalidation);
+			}
+		}
+		for(int ships : quick ? new int[] {20} : new int[] {20, 100}) {
+			evolveFirefight(harness, ships);
+		}
+		for(int asteroids : quick ? new int[] {100} : new int[] {100, 1000}) {
+			evolveCluster(harness, asteroids);
+		}
+		getTimeToCollision(harness);
+		for(int size : quick ? new int[] {1000} : new int[] {1000, 100000}) {
+			addCollision(harness, size);
+		}
+		for(int size : sizes) {
+			prepareCollisions(harness, size, 100);
+		}
+		harness.write(format, file);
+	}
+
+	/**
+	 * Times an evolve step of a field of moving asteroids. The field is evolved until its asteroids collide
+	 * before the measurement starts.
+	 */
+	private static void evolveAsteroids(Harness harness, int size) {
+
+		final World world = Scenarios.createAsteroidField(size, 20, false, null);
+		for(int i = 0; i < SETTLE_STEPS; i++) {world.evolve(TIME_STEP);}
+		int runs = getRuns(size);
+		harness.record("evolve.asteroids", Integer.toString(size), 1, null, new Runnable() {
+			@Override
+			public void run() {
+				world.evolve(TIME_STEP);
+			}
+		}, runs, runs);
+	}
+
+	/**
+	 * Times an evolve step of a field of moving asteroids that invalidates its predicted collisions with the given
+	 * strategy, and prints the number of stale collisions popped from the queue per resolved collision.
+	 */
+	private static void evolveInvalidation(Harness harness, int size, Invalidation invalidation) {
+
+		final World world = Scenarios.createAsteroidField(size, 20, false, null);
+		world.setInvalidation(invalidation);
+		for(int i = 0; i < SETTLE_STEPS; i++) {world.evolve(TIME_STEP);}
+		long stale = world.getNrOfStaleCollisions();
+		long resolved = world.getNrOfResolvedCollisions();
+		int runs = getRuns(size);
+		String parameter = invalidation.name().toLowerCase(Locale.ROOT) + "/" + size;
+		harness.record("evolve.invalidation", parameter, 1, null, new Runnable() {
+			@Override
+			public void run() {
+				world.evolve(TIME_STEP);
+			}
+		}, runs, runs);
+		stale = world.getNrOfStaleCollisions() - stale;
+		resolved = world.getNrOfResolvedCollisions() - resolved;
+		System.err.printf(Locale.ROOT, "evolve.invalidation [%s]: %d stale pops, %d resolved, %.3f stale pops/collision%n",
+				parameter, stale, resolved, resolved == 0 ? 0.0 : (double) stale/resolved);
+	}
+
+	/**
+	 * Times an evolve step of a mostly idle world.
+	 */
+	private static void evolveIdle(Harness harness, int size) {
+
+		final World world = Scenarios.createIdleWorld(size);
+		int runs = getRuns(size);
+		harness.record("evolve.idle", Integer.toString(size), 1, null, new Runnable() {
+			@Override
+			public void run() {
+				world.evolve(TIME_STEP);
+			}
+		}, runs, runs);
+	}
+
+	/**
+	 * Times a step of a firefight: every ship turns a little and fires, then the world evolves.
+	 */
+	private static void evolveFirefight(Harness harness, int ships) {
+
+		final List<Ship> fleet = new ArrayList<Ship>();
+		final World world = Scenarios.createFirefight(ships, fleet);
+		harness.record("evolve.firefight", Integer.toString(ships), 1, null, new Runnable() {
+			@Override
+			public void run() {
+				for(Ship ship : fleet) {
+					if(ship.isTerminated()) {continue;}
+					ship.turn(0.1);
+					ship.fireBullet();
+				}
+				world.evolve(TIME_STEP);
+			}
+		}, 2000, 2000);
+	}
+
+	/**
+	 * Times a second of a cluster being shot at. Every run starts from a new cluster,
+	 * so every run goes through the same cascade of splitting asteroids.
+	 */
+	private static void evolveCluster(Harness harness, final int asteroids) {
+
+		final List<Ship> fleet = new ArrayList<Ship>();
+		final World[] world = new World[1];
+		harness.record("evolve.cluster", Integer.toString(asteroids), CLUSTER_STEPS, new Runnable() {
+			@Override
+			public void run() {
+				fleet.clear();
+				world[0] = Scenarios.createCluster(asteroids, 16, fleet);
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				for(int i = 0; i < CLUSTER_STEPS; i++) {
+					for(Ship ship : fleet) {
+						if(!ship.isTerminated()) {ship.fireBullet();}
+					}
+					world[0].evolve(TIME_STEP);
+				}
+			}
+		}, 10, 20);
+	}
+
+	/**
+	 * Times the prediction of the collision of two space objects.
+	 */
+	private static void getTimeToCollision(Harness harness) {
+
+		final SpaceObject first = new Asteroid(new Vector(100, 100), new Vector(10, 0), 20);
+		final SpaceObject second = new Asteroid(new Vector(300, 100), new Vector(-10, 0), 20);
+		harness.record("getTimeToCollision", "", OPERATIONS, null, new Runnable() {
+			@Override
+			public void run() {
+				double time = 0;
+				for(int i = 0; i < OPERATIONS; i++) {time += first.getTimeToCollision(second);}
+				Harness.consume(time);
+			}
+		}, 50, 50);
+	}
+
+	/**
+	 * Times adding a collision to a queue holding the given number of collisions and removing it again,
+	 * the way a world adds a collision it predicts and removes one that became stale.
+	 */
+	private static void addCollision(Harness harness, int size) {
+
+		final CollisionQueue queue = new CollisionQueue();
+		Random random = new Random(Scenarios.SEED);
+		SpaceObject spaceobject = new Asteroid(new Vector(100, 100), new Vector(10, 0), 20);
+		for(int i = 0; i < size; i++) {queue.add(new Collision(random.nextDouble(), spaceobject));}
+		final Collision[] collisions = new Collision[OPERATIONS];
+		for(int i = 0; i < OPERATIONS; i++) {collisions[i] = new Collision(random.nextDouble(), spaceobject);}
+		harness.record("addCollision", Integer.toString(size), OPERATIONS, null, new Runnable() {
+			@Override
+			public void run() {
+				for(Collision collision : collisions) {
+					queue.add(collision);
+					queue.remove(collision);
+				}
+			}
+		}, 50, 50);
+	}
+
+	/**
+	 * Times predicting the collisions of the given number of space objects that changed their motion,
+	 * in a field of asteroids of the given size. The space objects are marked as modified before every run,
+	 * and a negligible evolve step makes the world predict their collisions again.
+	 */
+	private static void prepareCollisions(Harness harness, int size, final int modified) {
+
+		final List<SpaceObject> objects = new ArrayList<SpaceObject>();
+		final World world = Scenarios.createAsteroidField(size, 20, false, objects);
+		final int count = Math.min(modified, size);
+		int runs = getRuns(size);
+		harness.record("prepareCollisions", size + "/" + count, count, new Runnable() {
+			@Override
+			public void run() {
+				for(int i = 0; i < count; i++) {
+					world.addModifiedSpaceObject(objects.get((i*7919) % objects.size()));
+				}
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				world.evolve(1e-9);
+			}
+		}, runs, runs);
+	}
+
+	/**
+	 * Returns the number of runs of a benchmark on a world with the given number of space objects.
+	 */
+	private static int getRuns(int size) {
+		return Math.max(20, Math.min(2000, 1000000/size));
+	}
+
+	/**
+	 * The duration of a single evolve step (in seconds), a frame at 60 frames per second.
+	 */
+	private static final double TIME_STEP = 1/60.0;
+
+	/**
+	 * The number of evolve steps before the asteroids in a field start colliding with each other.
+	 */
+	private static final int SETTLE_STEPS = 120;
+
+	/**
+	 * The number of evolve steps in a run of the cluster benchmark.
+	 */
+	private static final int CLUSTER_STEPS = 60;
+
+	/**
+	 * The number of operations in a run of a micro benchmark.
+	 */
+	private static final int OPERATIONS = 100000;
+
+}
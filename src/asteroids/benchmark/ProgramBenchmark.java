@@ -0,0 +1,306 @@
+package asteroids.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Scanner;
+
+import asteroids.IFacade.ParseOutcome;
+import asteroids.IFacade.TypeCheckOutcome;
+import asteroids.model.Facade;
+import asteroids.model.Program;
+import asteroids.model.ProgramCache;
+import asteroids.model.Ship;
+import asteroids.model.Vector;
+import asteroids.model.World;
+import asteroids.model.programs.ProgramCompiler;
+import asteroids.model.programs.ProgramInstance;
+
+/**
+ * A suite of benchmarks for the interpreter of the programs of ships.
+ * The suite parses five programs and executes them on a ship in fields of 10 up to 10 000 asteroids:
+ * the bundled program that looks for the nearest asteroid, a tight loop of arithmetic, a loop through deeply
+ * nested if statements, a loop iterating over all space objects in the world and a loop evaluating deeply
+ * nested comparisons. The last one guards against comparisons evaluating their operands more than once,
+ * which makes the time grow exponentially with the depth of the nesting.
+ * Every program is timed per ProgramInstance.execute(1); the time and the bytes allocated are also reported per
+ * statement the program executed, under the name of the benchmark followed by ".statement". The programs run without
+ * a budget, so large fields aren't cut short.
+ * Where the platform has a Java compiler, every program is also timed compiled to bytecode, under the name of
+ * the benchmark followed by ".compiled".
+ * The suite also hands the bundled program, parsed once, to up to 500 ships in the benchmark "program.share",
+ * reported per ship.
+ * The benchmark "program.parse" parses the bundled program through a new program cache, running the parser,
+ * and "program.parse.cached" through a cache that already holds it.
+ * The benchmark "program.fleet" lets up to 500 ships around a cluster of as many asteroids execute the bundled program
+ * for a second of the world, reported per tick of the world, with the programs of the ships due in a tick executing
+ * one after the other, and "program.fleet.parallel" does the same with the programs executing in parallel on all the
+ * processors. The bytes allocated by the parallel programs are not counted.
+ * Before timing, the suite reports the number of nodes of every program as parsed and as optimized to the standard error.
+ * The programs print to the standard output, which is silenced while they run.
+ * Usage: java asteroids.benchmark.ProgramBenchmark [json|csv] [file] [quick]
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public class ProgramBenchmark {
+
+	public static void main(String[] args) throws IOException {
+
+		String format = args.length > 0 ? args[0] : "json";
+		String file = args.length > 1 && !args[1].equals("quick") ? args[1] : null;
+		boolean quick = args.length > 0 && args[args.length-1].equals("quick");
+
+		String[] names = {"nearest", "arithmetic", "nestedIf", "foreach", "nestedComparison"};
+		String[] texts = {loadProgram("/asteroids/resources/program.txt"), ARITHMETIC, createNestedIf(NESTING), FOREACH,
+				createNestedComparison(NESTING)};
+
+		for(int i = 0; i < names.length; i++) {
+			Program parsed = parse(texts[i]);
+			System.err.printf(Locale.ROOT, "program.%s: %d nodes parsed, %d optimized%n", names[i], parsed.getNrOfParsedNodes(), parsed.getNrOfNodes());
+		}
+		Harness harness = new Harness();
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {}
+		}));
+		try {
+			for(int size : quick ? new int[] {10, 1000} : new int[] {10, 100, 1000, 10000}) {
+				for(int i = 0; i < names.length; i++) {
+					run(harness, "program." + names[i], texts[i], size, false);
+					if(ProgramCompiler.isAvailable()) {run(harness, "program." + names[i] + ".compiled", texts[i], size, true);}
+				}
+			}
+			for(int ships : quick ? new int[] {10, 500} : new int[] {10, 100, 500}) {
+				share(harness, texts[0], ships);
+			}
+			parse(harness, texts[0]);
+			for(int ships : quick ? new int[] {100, 500} : new int[] {10, 100, 500}) {
+				fleet(harness, texts[0], ships, false);
+				fleet(harness, texts[0], ships, true);
+			}
+		}
+		finally {System.setOut(out);}
+		harness.write(format, file);
+	}
+
+	/**
+	 * Times the program with the given text on a ship in a field of the given number of asteroids.
+	 * @param compiled
+	 * 		  True if the ship has to execute the program compiled to bytecode.
+	 */
+	private static void run(Harness harness, String benchmark, String text, int size, boolean compiled) {
+
+		Program parsed = parse(text);
+		parsed.setCompiled(compiled);
+		Ship ship = createShip(parsed);
+		createWorld(size).addObject(ship);
+		final ProgramInstance program = ship.getProgramInstance();
+		program.setBudget(Long.MAX_VALUE);
+		int runs = Math.max(20, Math.min(2000, 100000/size));
+		long statements = program.getNrOfExecutedStatements();
+		Harness.Result result = harness.record(benchmark, Integer.toString(size), EXECUTIONS, null, new Runnable() {
+			@Override
+			public void run() {
+				program.execute(EXECUTIONS);
+			}
+		}, runs, runs);
+		double statementsPerExecution = (double) (program.getNrOfExecutedStatements() - statements)/(2*runs*EXECUTIONS);
+		harness.add(new Harness.Result(benchmark + ".statement", result.getParameter(),
+				result.getNanosPerOperation()/statementsPerExecution, result.getBytesPerOperation()/statementsPerExecution, runs));
+	}
+
+	/**
+	 * Times handing a single parsed program to the given number of ships, and executing it on all of them once.
+	 * The time and the bytes allocated are reported per ship.
+	 */
+	private static void share(Harness harness, String text, final int ships) {
+
+		final Program program = parse(text);
+		final World world = createWorld(100);
+		final Ship[] fleet = new Ship[ships];
+		for(int i = 0; i < ships; i++) {
+			fleet[i] = createShip(null);
+			world.addObject(fleet[i]);
+		}
+		harness.record("program.share", Integer.toString(ships), ships, null, new Runnable() {
+			@Override
+			public void run() {
+				for(Ship ship : fleet) {
+					ship.setProgram(program);
+					ship.execute(1);
+				}
+			}
+		}, 20, 20);
+	}
+
+	/**
+	 * Times parsing the program with the given text through a new program cache, and through a cache holding the text.
+	 */
+	private static void parse(Harness harness, final String text) {
+
+		final ProgramCache cache = new ProgramCache(1);
+		harness.record("program.parse", "", 1, null, new Runnable() {
+			@Override
+			public void run() {
+				new ProgramCache(1).parse(text);
+			}
+		}, 100, 100);
+		harness.record("program.parse.cached", "", 1, null, new Runnable() {
+			@Override
+			public void run() {
+				cache.parse(text);
+			}
+		}, 1000, 1000);
+	}
+
+	/**
+	 * Times a second of a world with the given number of ships around a cluster of as many asteroids, all executing
+	 * the program with the given text, with the programs of the ships due at once executing in parallel or not.
+	 * Every run starts from a new world, so every run goes through the same second. The time is reported per tick.
+	 */
+	private static void fleet(Harness harness, String text, final int ships, final boolean parallel) {
+
+		final Program program = parse(text);
+		final List<Ship> fleet = new ArrayList<Ship>();
+		final World[] world = new World[1];
+		harness.record(parallel ? "program.fleet.parallel" : "program.fleet", Integer.toString(ships), TICKS, new Runnable() {
+			@Override
+			public void run() {
+				fleet.clear();
+				world[0] = Scenarios.createCluster(ships, ships, fleet);
+				world[0].getScheduler().setParallel(parallel);
+				for(Ship ship : fleet) {
+					ship.setProgram(program);
+					ship.getProgramInstance().setBudget(Long.MAX_VALUE);
+				}
+			}
+		}, new Runnable() {
+			@Override
+			public void run() {
+				for(int i = 0; i < TICKS; i++) {world[0].evolve(1.0/TICKS);}
+			}
+		}, 3, 5);
+	}
+
+	/**
+	 * Returns a field of the given number of asteroids that stand still.
+	 */
+	private static World createWorld(int size) {
+		return Scenarios.createAsteroidField(size, 0, false, null);
+	}
+
+	/**
+	 * Returns a ship executing the given program, placed in between the first four asteroids of a field.
+	 * Ships without a program are placed on the same spot and don't collide, since they never move.
+	 */
+	private static Ship createShip(Program program) {
+		Ship ship = new Ship(new Vector(Scenarios.SPACING, Scenarios.SPACING), new Vector(0, 0), 10, 0, 5e15);
+		if(program != null) {ship.setProgram(program);}
+		return ship;
+	}
+
+	/**
+	 * Returns the type checked program with the given text, the way the game loads a program.
+	 * @throws IllegalArgumentException
+	 * 		   The text is not a valid program, or the program is not well typed.
+	 */
+	private static Program parse(String text) throws IllegalArgumentException {
+		Facade facade = new Facade();
+		ParseOutcome<Program> outcome = facade.parseProgram(text);
+		if(!outcome.isSuccessful()) {throw new IllegalArgumentException(outcome.getMessage());}
+		TypeCheckOutcome typeCheck = facade.typeCheckProgram(outcome.getProgram());
+		if(!typeCheck.isSuccessful()) {throw new IllegalArgumentException(typeCheck.getMessage());}
+		return outcome.getProgram();
+	}
+
+	/**
+	 * Returns the text of the program in the resource with the given name.
+	 */
+	private static String loadProgram(String resource) throws IOException {
+		InputStream stream = ProgramBenchmark.class.getResourceAsStream(resource);
+		if(stream == null) {throw new IOException(resource);}
+		Scanner scanner = new Scanner(stream, "UTF-8");
+		try {return scanner.useDelimiter("\\A").next();}
+		finally {scanner.close();}
+	}
+
+	/**
+	 * Returns a program running through the given number of nested if statements on every iteration of its loop.
+	 */
+	private static String createNestedIf(int depth) {
+		StringBuilder text = new StringBuilder("double x;\ndouble y;\nx := 0;\nwhile(true) do {\n  x := (x + 1);\n");
+		for(int i = 0; i < depth; i++) {text.append("  if(x > ").append(i).append(") then {\n");}
+		text.append("  y := x;\n");
+		for(int i = 0; i < depth; i++) {text.append("  } else { y := 0; }\n");}
+		return text.append("  skip;\n}\n").toString();
+	}
+
+	/**
+	 * Returns a program evaluating a comparison nested to the given depth on every iteration of its loop.
+	 * Every level compares the level below it with a comparison of a number.
+	 */
+	private static String createNestedComparison(int depth) {
+		StringBuilder comparison = new StringBuilder("(x < 0)");
+		for(int i = 1; i < depth; i++) {
+			comparison.insert(0, "(").append(" == (x < ").append(i).append("))");
+		}
+		return "double x;\nbool b;\nx := 0;\nwhile(true) do {\n  x := (x + 1);\n  b := " + comparison + ";\n  skip;\n}\n";
+	}
+
+	/**
+	 * A program computing a few arithmetic expressions on every iteration of its loop.
+	 */
+	private static final String ARITHMETIC =
+			"double x;\n" +
+			"double y;\n" +
+			"double z;\n" +
+			"x := 1;\n" +
+			"y := 2;\n" +
+			"while(true) do {\n" +
+			"  z := (((x + y) * (x - y)) / (y + 1));\n" +
+			"  x := (x + 1);\n" +
+			"  y := sqrt(((z * z) + 1));\n" +
+			"  z := ((x * y) - (z / 2));\n" +
+			"  x := (x - (z / (z + 1)));\n" +
+			"  skip;\n" +
+			"}\n";
+
+	/**
+	 * A program summing the radius of every space object in the world on every iteration of its loop.
+	 */
+	private static final String FOREACH =
+			"double r;\n" +
+			"double s;\n" +
+			"entity a;\n" +
+			"while(true) do {\n" +
+			"  s := 0;\n" +
+			"  foreach(any, a) do {\n" +
+			"    r := getradius a;\n" +
+			"    s := (s + r);\n" +
+			"  }\n" +
+			"  skip;\n" +
+			"}\n";
+
+	/**
+	 * The depth of the nested if statements and comparisons.
+	 */
+	private static final int NESTING = 16;
+
+	/**
+	 * The number of times a program is executed in a single run. The bundled program alternates between
+	 * a scan of the world and firing, so a run covers both.
+	 */
+	private static final int EXECUTIONS = 10;
+
+	/**
+	 * The number of ticks of the world in a second of the fleet benchmarks.
+	 */
+	private static final int TICKS = 60;
+
+}
@@ -0,0 +1,141 @@
+package asteroids.benchmark;
+
+import java.util.List;
+import java.util.Random;
+
+import asteroids.model.Asteroid;
+import asteroids.model.Ship;
+import asteroids.model.SpaceObject;
+import asteroids.model.Vector;
+import asteroids.model.World;
+
+/**
+ * A class collecting the worlds the benchmarks run on. Every world is built from a fixed seed,
+ * so two runs of a benchmark evolve the same world.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public final class Scenarios {
+
+	private Scenarios() {}
+
+	/**
+	 * Creates a world with the given number of asteroids, placed on a square grid so they don't overlap.
+	 * @param size
+	 * 		  The number of asteroids.
+	 * @param speed
+	 * 		  The maximum speed of an asteroid along each axis (in km/s).
+	 * @param storeBacked
+	 * 		  True if the world has to keep the asteroids in a space object store. The entity ids in the store
+	 * 		  then follow the order the asteroids are added in.
+	 * @param objects
+	 * 		  A list the asteroids are added to, in the order they are added to the world. May be null.
+	 */
+	public static World createAsteroidField(int size, double speed, boolean storeBacked, List<SpaceObject> objects) {
+
+		int columns = (int) Math.ceil(Math.sqrt(size));
+		World world = new World(columns*SPACING, columns*SPACING);
+		world.setStoreBacked(storeBacked);
+		Random random = new Random(SEED);
+		for(int i = 0; i < size; i++) {
+			Vector position = new Vector((i % columns + 0.5)*SPACING, (i / columns + 0.5)*SPACING);
+			Vector velocity = new Vector((random.nextDouble()*2 - 1)*speed, (random.nextDouble()*2 - 1)*speed);
+			Asteroid asteroid = new Asteroid(position, velocity, RADIUS, random);
+			world.addObject(asteroid);
+			if(objects != null) {objects.add(asteroid);}
+		}
+		return world;
+	}
+
+	/**
+	 * Creates a world with the given number of ships on a ring around a few slow asteroids.
+	 * The ships are added to the given list, so the benchmark can let them fire.
+	 */
+	public static World createFirefight(int ships, List<Ship> fleet) {
+
+		double side = Math.max(1000, ships*40);
+		World world = new World(side, side);
+		Random random = new Random(SEED);
+		for(int i = 0; i < ships; i++) {
+			double angle = 2*Math.PI*i/ships;
+			Vector position = new Vector(side/2 + Math.cos(angle)*side*0.4, side/2 + Math.sin(angle)*side*0.4);
+			Ship ship = new Ship(position, new Vector(0, 0), 10, angle + Math.PI, 5e15);
+			world.addObject(ship);
+			fleet.add(ship);
+		}
+		for(int i = 0; i < ships/4; i++) {
+			Vector position = new Vector(side*(0.3 + 0.4*random.nextDouble()), side*(0.3 + 0.4*random.nextDouble()));
+			Asteroid asteroid = new Asteroid(position, new Vector(random.nextDouble()*10 - 5, random.nextDouble()*10 - 5), 15, random);
+			if(!overlapsAny(world, asteroid)) {world.addObject(asteroid);}
+		}
+		return world;
+	}
+
+	/**
+	 * Creates a world with a dense cluster of large asteroids in the middle, surrounded by ships aiming at it.
+	 * Every asteroid hit by a bullet splits, so the benchmark triggers cascades of Asteroid.terminate.
+	 */
+	public static World createCluster(int asteroids, int ships, List<Ship> fleet) {
+
+		int columns = (int) Math.ceil(Math.sqrt(asteroids));
+		double clusterSide = columns*CLUSTER_SPACING;
+		// The ring of ships lies outside the corners of the cluster.
+		double ring = clusterSide*0.75 + 100;
+		double side = 2*ring + 200;
+		double offset = (side - clusterSide)/2;
+		World world = new World(side, side);
+		Random random = new Random(SEED);
+		for(int i = 0; i < asteroids; i++) {
+			Vector position = new Vector(offset + (i % columns + 0.5)*CLUSTER_SPACING, offset + (i / columns + 0.5)*CLUSTER_SPACING);
+			Vector velocity = new Vector(random.nextDouble()*4 - 2, random.nextDouble()*4 - 2);
+			world.addObject(new Asteroid(position, velocity, 4*RADIUS, random));
+		}
+		for(int i = 0; i < ships; i++) {
+			double angle = 2*Math.PI*i/ships;
+			Vector position = new Vector(side/2 + Math.cos(angle)*ring, side/2 + Math.sin(angle)*ring);
+			Ship ship = new Ship(position, new Vector(0, 0), 10, angle + Math.PI, 5e15);
+			world.addObject(ship);
+			fleet.add(ship);
+		}
+		return world;
+	}
+
+	/**
+	 * Creates a mostly idle world: the asteroids are far apart and barely move, so collisions are rare.
+	 */
+	public static World createIdleWorld(int size) {
+		return createAsteroidField(size, 0.01, false, null);
+	}
+
+	/**
+	 * Checks whether the given space object overlaps a space object in the given world.
+	 */
+	private static boolean overlapsAny(World world, SpaceObject spaceobject) {
+		for(SpaceObject other : world.getObjects()) {
+			if(other.overlap(spaceobject)) {return true;}
+		}
+		return false;
+	}
+
+	/**
+	 * The distance between the centers of neighbouring asteroids in a field (in km).
+	 */
+	public static final double SPACING = 50;
+
+	/**
+	 * The distance between the centers of neighbouring asteroids in a cluster (in km).
+	 */
+	public static final double CLUSTER_SPACING = 82;
+
+	/**
+	 * The radius of the asteroids in a field (in km).
+	 */
+	public static final double RADIUS = 10;
+
+	/**
+	 * The seed of all random numbers.
+	 */
+	public static final long SEED = 42;
+
+}
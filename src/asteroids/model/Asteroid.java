@@ -119,8 +119,8 @@ public class Asteroid extends SpaceObject {
 		
 		double direction = Math.PI*(random.nextDouble());
 		
-		double xPosChild1 = this.getPosition().getX()+(childradius+Util.EPSILON)*Math.cos(direction);
-		double yPosChild1 = this.getPosition().getY()+(childradius+Util.EPSILON)*Math.sin(direction);
+		double xPosChild1 = this.getXPosition()+(childradius+Util.EPSILON)*Math.cos(direction);
+		double yPosChild1 = this.getYPosition()+(childradius+Util.EPSILON)*Math.sin(direction);
 		Vector position = new Vector(xPosChild1, yPosChild1);
 		double childVelocity = (1.5)*(getVelocity().getNorm());
 		double childXVelocity = childVelocity*Math.cos(direction);
@@ -130,8 +130,8 @@ public class Asteroid extends SpaceObject {
 		
 		// Create Child 2
 		
-		double xPosChild2 = this.getPosition().getX()-(childradius)*Math.cos(direction);
-		double yPosChild2 = this.getPosition().getY()-(childradius)*Math.sin(direction);
+		double xPosChild2 = this.getXPosition()-(childradius)*Math.cos(direction);
+		double yPosChild2 = this.getYPosition()-(childradius)*Math.sin(direction);
 		Vector position2 = new Vector(xPosChild2, yPosChild2);
 		Vector velocity2 = new Vector(-1*childXVelocity, -1*childYVelocity);
 		SpaceObject Child2 = new Asteroid(position2, velocity2, childradius);
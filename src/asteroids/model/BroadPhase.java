@@ -0,0 +1,72 @@
+package asteroids.model;
+
+import java.util.Collection;
+
+/**
+ * An interface for the broad phase of the collision detection in a world.
+ * A broad phase keeps track of the space objects in a world and returns, for a given space object,
+ * the space objects it might collide with within the prediction horizon. Only those candidates
+ * are handed to the exact computation in SpaceObject.getTimeToCollision(SpaceObject).
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public interface BroadPhase {
+
+	/**
+	 * Returns the time (in seconds) over which predictions made with this broad phase stay complete.
+	 * Collisions further away than this horizon may be missed by getCandidates(SpaceObject), so the world
+	 * has to predict all collisions again once the horizon has passed.
+	 *
+	 * @return The prediction horizon of this broad phase, Double.POSITIVE_INFINITY if it never expires.
+	 */
+	public double getPredictionHorizon();
+
+	/**
+	 * Registers the given space object (again) with its current position and velocity.
+	 *
+	 * @param spaceobject
+	 * 		  The space object to register.
+	 * @param horizon
+	 * 		  The time (in seconds) the registration has to cover.
+	 */
+	public void update(SpaceObject spaceobject, double horizon);
+
+	/**
+	 * Removes the given space object from this broad phase. Nothing happens if it isn't registered.
+	 *
+	 * @param spaceobject
+	 * 		  The space object to remove.
+	 */
+	public void remove(SpaceObject spaceobject);
+
+	/**
+	 * Removes all the space objects from this broad phase.
+	 */
+	public void clear();
+
+	/**
+	 * Returns the registered space objects the given space object might collide with within the horizon
+	 * of its registration. The result may contain the given space object itself.
+	 *
+	 * @param spaceobject
+	 * 		  The registered space object to find candidates for.
+	 * @return A collection containing at least every registered space object that collides with
+	 * 		   the given space object within the horizon. The collection may be reused by the next call
+	 * 		   to this method, so it may not be kept.
+	 */
+	public Collection<SpaceObject> getCandidates(SpaceObject spaceobject);
+	
+	/**
+	 * Returns the registered space objects that might overlap a circle with the given center and radius
+	 * at any time within the horizon of their registration.
+	 *
+	 * @param position
+	 * 		  The center of the circle.
+	 * @param radius
+	 * 		  The radius of the circle (in km).
+	 * @return A collection containing at least every registered space object overlapping the circle.
+	 */
+	public Collection<SpaceObject> getCandidates(Vector position, double radius);
+
+}
@@ -0,0 +1,61 @@
+package asteroids.model;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A class of broad phases that consider every pair of space objects as a candidate.
+ * This is the reference mode for the collision detection: its predictions never expire and
+ * it can be used to cross-check the results of the other broad phases.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public class BruteForceBroadPhase implements BroadPhase {
+
+	/**
+	 * @return Double.POSITIVE_INFINITY, a brute force prediction never expires.
+	 */
+	@Override
+	public double getPredictionHorizon() {
+		return Double.POSITIVE_INFINITY;
+	}
+
+	@Override
+	public void update(SpaceObject spaceobject, double horizon) {
+		Objects.add(spaceobject);
+	}
+
+	@Override
+	public void remove(SpaceObject spaceobject) {
+		Objects.remove(spaceobject);
+	}
+
+	@Override
+	public void clear() {
+		Objects.clear();
+	}
+
+	/**
+	 * @return All the registered space objects.
+	 */
+	@Override
+	public Collection<SpaceObject> getCandidates(SpaceObject spaceobject) {
+		return Objects;
+	}
+
+	/**
+	 * @return All the registered space objects.
+	 */
+	@Override
+	public Collection<SpaceObject> getCandidates(Vector position, double radius) {
+		return Objects;
+	}
+
+	/**
+	 * The registered space objects.
+	 */
+	private final Set<SpaceObject> Objects = new HashSet<SpaceObject>();
+
+}
@@ -23,8 +23,10 @@ public class Collision {
 	 */
 	public Collision(double collisionTime, SpaceObject spaceobject1)
 	{
-		setCollisionTime(collisionTime);
 		setSpaceObject1(spaceobject1);
+		setWorld(spaceobject1);
+		setCollisionTime(collisionTime);
+		recordEventCounts();
 	}
 	
 
@@ -46,33 +48,76 @@ public class Collision {
 	
 	public Collision(double collisionTime, SpaceObject spaceobject1, SpaceObject spaceobject2)
 	{
-		setCollisionTime(collisionTime);
 		setSpaceObject1(spaceobject1);
 		setSpaceObject2(spaceobject2);
+		setWorld(spaceobject1);
+		setCollisionTime(collisionTime);
+		recordEventCounts();
 	}
 	
 	/**
-	 * @return the time to collision.
+	 * @return the time to collision, derived from the clock of the world of this collision.
+	 * 		   | Math.max(0, getTime() - getWorld().getTime())
 	 */
 	public double getCollisionTime() {
-		return this.collisionTime;
+		return Math.max(0, this.time - getClock());
 	}
 	
 	/**
 	 * Sets the time until collision.
 	 * @param collisionTime
 	 * 		  The time until this collision.
+	 * @post The collision takes place at the given time from the current clock of its world.
+	 * 		 | new.getTime() == getWorld().getTime() + collisionTime
 	 */
 	public void setCollisionTime(double collisionTime) {
 		if(collisionTime < 0) {throw new IllegalArgumentException();}
 		
-		this.collisionTime = collisionTime;
+		this.time = getClock() + collisionTime;
+	}
+	
+	/**
+	 * @return The time on the clock of the world at which this collision takes place.
+	 */
+	@Basic
+	public double getTime() {
+		return this.time;
+	}
+	
+	/**
+	 * The time on the clock of the world at which this collision takes place.
+	 */
+	private double time;
+	
+	/**
+	 * @return The world whose clock the time of this collision is measured against, null if there is none.
+	 */
+	@Basic @Immutable
+	public World getWorld() {
+		return this.world;
+	}
+	
+	/**
+	 * Sets the world of the given space object as the world of this collision.
+	 * @param spaceobject
+	 */
+	private void setWorld(SpaceObject spaceobject) {
+		if(spaceobject != null) {
+			this.world = spaceobject.getWorld();}
+	}
+	
+	/**
+	 * @return The current time on the clock of the world of this collision, zero if there is no world.
+	 */
+	private double getClock() {
+		if(world == null) {return 0;}
+		return world.getTime();
 	}
 	
 	/**
-	 * Time until the collision.
+	 * The world whose clock the time of this collision is measured against.
 	 */
-	private double collisionTime;
+	private World world;
 	
 	/**
 	 * @return The first (and maybe only) SpaceObject of the collision.
@@ -116,6 +161,26 @@ public class Collision {
 	 */
 	private SpaceObject spaceobject2;
 	
+	/**
+	 * @return The position of this collision in the collision queue holding it, -1 if it isn't queued.
+	 */
+	int getQueueIndex() {
+		return this.queueIndex;
+	}
+	
+	/**
+	 * Sets the position of this collision in the collision queue holding it.
+	 * @param queueIndex
+	 */
+	void setQueueIndex(int queueIndex) {
+		this.queueIndex = queueIndex;
+	}
+	
+	/**
+	 * The position of this collision in the collision queue holding it, -1 if it isn't queued.
+	 */
+	private int queueIndex = -1;
+	
 	/**
 	 * @param spaceObject
 	 * @return True if this spaceobject equals spaceboject1 (or spaceobject2).
@@ -129,16 +194,32 @@ public class Collision {
 	}
 	
 	/**
-	 * A little method to subtract the time interval from the time to collision.
-	 * @param dt
+	 * Records the current event counts of the space objects of this collision.
 	 */
-	public void evolve(double dt) {
-		if(dt > collisionTime) {throw new RuntimeException();}
-		else {
-			setCollisionTime(collisionTime - dt);
-		}
+	private void recordEventCounts() {
+		if(spaceobject1 != null) {eventCount1 = spaceobject1.getEventCount();}
+		if(spaceobject2 != null) {eventCount2 = spaceobject2.getEventCount();}
+	}
+	
+	/**
+	 * Checks whether this collision is stale: the motion of one of its space objects changed since it was predicted.
+	 * @return True if the event count of one of the space objects differs from its count at the time of prediction.
+	 */
+	public boolean isStale() {
+		if(spaceobject1.getEventCount() != eventCount1) {return true;}
+		return (spaceobject2 != null && spaceobject2.getEventCount() != eventCount2);
 	}
 	
+	/**
+	 * The event count of the first space object at the time of prediction.
+	 */
+	private int eventCount1;
+	
+	/**
+	 * The event count of the second space object at the time of prediction.
+	 */
+	private int eventCount2;
+	
 	/**
 	 * Resolves this collision, depending on whether it is a collision between
 	 * a spaceobject and a boundary or two spaceobjects.
@@ -0,0 +1,172 @@
+package asteroids.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A class of priority queues holding collisions, ordered by the time at which the collision takes place.
+ * The queue is an indexed binary min-heap: every queued collision knows its position in the heap,
+ * so it can be used as its own handle for removal.
+ * Adding and removing a collision take logarithmic time, looking up the first collision takes constant time.
+ * The time of a collision may not change while it is queued.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public class CollisionQueue implements Iterable<Collision> {
+
+	/**
+	 * Returns the number of collisions in this queue.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks whether this queue holds no collisions.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Checks whether the given collision is held by this queue.
+	 * @param collision
+	 */
+	public boolean contains(Collision collision) {
+		int index = collision.getQueueIndex();
+		return index >= 0 && index < size && heap[index] == collision;
+	}
+
+	/**
+	 * Returns the first collision in this queue, null if this queue is empty.
+	 */
+	public Collision peek() {
+		if(isEmpty()) {return null;}
+		return heap[0];
+	}
+
+	/**
+	 * Adds a collision to this queue.
+	 * @param collision
+	 * 		  The collision to add.
+	 * @throws IllegalArgumentException
+	 * 		   The collision is already held by a queue.
+	 */
+	public void add(Collision collision) throws IllegalArgumentException {
+
+		if(collision.getQueueIndex() != -1) {throw new IllegalArgumentException();}
+		if(size == heap.length) {heap = Arrays.copyOf(heap, 2*size);}
+		heap[size] = collision;
+		collision.setQueueIndex(size);
+		size++;
+		siftUp(size-1);
+	}
+
+	/**
+	 * Removes a collision from this queue.
+	 * @param collision
+	 * 		  The collision to remove.
+	 * @return True if the collision was held by this queue.
+	 */
+	public boolean remove(Collision collision) {
+
+		if(!contains(collision)) {return false;}
+		int index = collision.getQueueIndex();
+		size--;
+		Collision last = heap[size];
+		heap[size] = null;
+		collision.setQueueIndex(-1);
+		if(index < size) {
+			heap[index] = last;
+			last.setQueueIndex(index);
+			siftDown(index);
+			siftUp(last.getQueueIndex());
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all the collisions from this queue.
+	 */
+	public void clear() {
+		for(int i = 0; i < size; i++) {
+			heap[i].setQueueIndex(-1);
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Returns an iterator over the collisions in this queue, in no particular order.
+	 * The queue may not be changed while iterating.
+	 */
+	@Override
+	public Iterator<Collision> iterator() {
+		return new Iterator<Collision>() {
+
+			@Override
+			public boolean hasNext() {
+				return next < size;
+			}
+
+			@Override
+			public Collision next() {
+				if(!hasNext()) {throw new NoSuchElementException();}
+				return heap[next++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+			private int next = 0;
+		};
+	}
+
+	/**
+	 * Moves the collision at the given index up until its parent isn't later than itself.
+	 */
+	private void siftUp(int index) {
+		Collision collision = heap[index];
+		while(index > 0) {
+			int parent = (index-1)/2;
+			if(heap[parent].getTime() <= collision.getTime()) {break;}
+			heap[index] = heap[parent];
+			heap[index].setQueueIndex(index);
+			index = parent;
+		}
+		heap[index] = collision;
+		collision.setQueueIndex(index);
+	}
+
+	/**
+	 * Moves the collision at the given index down until none of its children is earlier than itself.
+	 */
+	private void siftDown(int index) {
+		Collision collision = heap[index];
+		while(2*index+1 < size) {
+			int child = 2*index+1;
+			if(child+1 < size && heap[child+1].getTime() < heap[child].getTime()) {child++;}
+			if(collision.getTime() <= heap[child].getTime()) {break;}
+			heap[index] = heap[child];
+			heap[index].setQueueIndex(index);
+			index = child;
+		}
+		heap[index] = collision;
+		collision.setQueueIndex(index);
+	}
+
+	/**
+	 * The binary heap holding the collisions of this queue in its first size elements.
+	 */
+	private Collision[] heap = new Collision[16];
+
+	/**
+	 * The number of collisions in this queue.
+	 */
+	private int size = 0;
+
+}
@@ -5,8 +5,6 @@ import java.io.InputStream;
 import java.net.URL;
 import java.util.*;
 
-import org.antlr.v4.runtime.RecognitionException;
-
 import asteroids.CollisionListener;
 import asteroids.IFacade;
 import asteroids.ModelException;
@@ -145,26 +143,26 @@ public class Facade implements IFacade<World, Ship, Asteroid, Bullet, asteroids.
 	@Override
 	public double getShipX(Ship ship) 
 	{
-		return ship.getPosition().getX();
+		return ship.getXPosition();
 	}
 
 	@Override
 	public double getShipY(Ship ship) 
 	{
-		return ship.getPosition().getY();
+		return ship.getYPosition();
 	}
 
 	@Override
 	public double getShipXVelocity(Ship ship) 
 	{
-		return ship.getVelocity().getX();
+		return ship.getXVelocity();
 	}
 	
 
 	@Override
 	public double getShipYVelocity(Ship ship) 
 	{
-		return ship.getVelocity().getY();
+		return ship.getYVelocity();
 	}
 	
 
@@ -262,25 +260,25 @@ public class Facade implements IFacade<World, Ship, Asteroid, Bullet, asteroids.
 	 
 	public double getAsteroidX(Asteroid asteroid) 
 	{
-		return asteroid.getPosition().getX();
+		return asteroid.getXPosition();
 	}
 
 	  
 	public double getAsteroidY(Asteroid asteroid) 
 	{
-		return asteroid.getPosition().getY();
+		return asteroid.getYPosition();
 	}
 
 	  
 	public double getAsteroidXVelocity(Asteroid asteroid) 
 	{
-		return asteroid.getVelocity().getX();
+		return asteroid.getXVelocity();
 	}
 
 	 
 	public double getAsteroidYVelocity(Asteroid asteroid) 
 	{
-		return asteroid.getVelocity().getY();
+		return asteroid.getYVelocity();
 	}
 
 	 
@@ -311,22 +309,22 @@ public class Facade implements IFacade<World, Ship, Asteroid, Bullet, asteroids.
 
 	public double getBulletX(Bullet bullet) 
 	{
-		return bullet.getPosition().getX();
+		return bullet.getXPosition();
 	}
 
 	public double getBulletY(Bullet bullet) 
 	{
-		return bullet.getPosition().getY();
+		return bullet.getYPosition();
 	}
 
 	public double getBulletXVelocity (Bullet bullet) 
 	{
-		return bullet.getVelocity().getX();
+		return bullet.getXVelocity();
 	}
 
 	public double getBulletYVelocity(Bullet bullet) 
 	{
-		return bullet.getVelocity().getY();
+		return bullet.getYVelocity();
 	}
 
 	public double getBulletRadius(Bullet bullet) 
@@ -349,28 +347,29 @@ public class Facade implements IFacade<World, Ship, Asteroid, Bullet, asteroids.
 		return bullet.getSource();
 	}
 
+	/**
+	 * Parses the given text, or returns the outcome of parsing it from the program cache if the same text
+	 * was parsed before. A successful outcome holds a new program on every call.
+	 */
 	@Override
 	public asteroids.IFacade.ParseOutcome<Program> parseProgram(String text) {
-		 
-		ProgramFactoryImplementation factory = new ProgramFactoryImplementation();
-		    ProgramParser<Expression, Statement, Type> parser = new ProgramParser<>(factory);
-		    try {Program program = new Program();
-        		factory.setProgram(program);
-		    	parser.parse(text);
-		        List<String> errors = parser.getErrors();
-		        if(! errors.isEmpty()) {
-		          return ParseOutcome.failure(errors.get(0));
-		        } else {
-		        	
-		        	program.setGlobals(parser.getGlobals());
-		        	program.setStatement(parser.getStatement());
-		        	return ParseOutcome.success(program); 
-		        }
-		    } catch(RecognitionException e) {
-		      return ParseOutcome.failure(e.getMessage());
-		    }
+		return programCache.parse(text);
+	}
+	
+	/**
+	 * Returns the cache of parsed programs shared by all facades.
+	 */
+	public static ProgramCache getProgramCache() {
+		return programCache;
 	}
 	
+	/**
+	 * The number of texts of programs the program cache holds.
+	 */
+	public static final int PROGRAM_CACHE_CAPACITY = 64;
+	
+	private static final ProgramCache programCache = new ProgramCache(PROGRAM_CACHE_CAPACITY);
+	
 
 	@Override
 	public asteroids.IFacade.ParseOutcome<Program> loadProgramFromStream(
@@ -396,18 +395,25 @@ public class Facade implements IFacade<World, Ship, Asteroid, Bullet, asteroids.
 
 	@Override
 	public boolean isTypeCheckingSupported() {
-		// TODO Auto-generated method stub
-		return false;
+		return true;
 	}
 
 	@Override
 	public asteroids.IFacade.TypeCheckOutcome typeCheckProgram(Program program) {
-		// TODO Auto-generated method stub
-		return null;
+		try {
+			program.typeCheck();
+			return TypeCheckOutcome.success();
+		}
+		catch(IllegalArgumentException illegalargument) {
+			return TypeCheckOutcome.failure(illegalargument.getMessage());
+		}
 	}
 
 	@Override
 	public void setShipProgram(Ship ship, Program program) {
+		try {program.typeCheck();}
+		catch(IllegalArgumentException illegalargument) {
+			throw new ModelException(illegalargument);}
 		ship.setProgram(program);
 		
 	}
@@ -3,10 +3,19 @@ import asteroids.model.programs.Statement.*;
 import asteroids.model.programs.*;
 import java.util.*;
 
+/**
+ * A class of programs as they are parsed, before they are handed to ships.
+ * A program compiles to code that is shared by every ship it is handed to; the state of an execution
+ * lives in the program instance of each ship, so one parse serves any number of ships. Every code has a copy
+ * of the statement of its own, and a program never changes a code once it handed it out: changing or type
+ * checking the program gives it a new code, and ships keep executing the code they were handed.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
 public class Program {
 	
 	public Program(){
-		this.globals = new HashMap<String,Type>();
 		this.statement = null;
 	}
 	
@@ -15,56 +24,217 @@ public class Program {
 		setStatement(statement);
 	}
 	
+	/**
+	 * Returns the declared global variables of this program, mapping their names to their initial values.
+	 */
 	public Map<String,Type> getGlobals() {
-		return globals;
+		return Collections.unmodifiableMap(globals);
 	}
 	
+	/**
+	 * Sets the global variables of this program to copies of the given variables.
+	 */
 	public void setGlobals(Map<String, Type> globals) {
-		this.globals = new HashMap<String,Type>(globals);
+		this.globals.clear();
+		for(Map.Entry<String, Type> global : globals.entrySet()) {
+			this.globals.put(global.getKey(), copyOf(global.getValue()));
+		}
+		this.code = null;
+		this.optimized = false;
+		this.typeError = null;
 	}
 	
 	public Type getGlobal (String name) {
 		return globals.get(name);
 	}
 	
+	/**
+	 * Sets the initial value of the global variable with the given name to a copy of the given value.
+	 * Ships that already execute this program keep the value they started with.
+	 */
 	public void setGlobal(String name, Type type) {
-		globals.put(name, type);
+		globals.put(name, copyOf(type));
+		this.code = null;
+		this.optimized = false;
+		this.typeError = null;
 	}
 	
-	private Map<String,Type> globals;
+	/**
+	 * Returns a copy of the given value, or null if it is null.
+	 */
+	private static Type copyOf(Type type) {
+		return type == null ? null : type.copy();
+	}
 	
-	public Statement getStatement() {
-		return statement;
+	private final Map<String, Type> globals = new LinkedHashMap<String, Type>();
+	
+	/**
+	 * Returns a new program with copies of the global variables of this program, sharing its statement and its code.
+	 * Neither is changed once it is shared, so changing or type checking either program leaves the other as it is,
+	 * and ships handed either program share the code, compiled to bytecode at most once.
+	 */
+	public Program copy() {
+		Program copy = new Program();
+		for(Map.Entry<String, Type> global : globals.entrySet()) {copy.globals.put(global.getKey(), copyOf(global.getValue()));}
+		for(Map.Entry<String, Type> temporary : temporaries.entrySet()) {copy.temporaries.put(temporary.getKey(), copyOf(temporary.getValue()));}
+		copy.statement = statement;
+		copy.code = code;
+		copy.optimizing = optimizing;
+		copy.optimized = optimized;
+		copy.nrOfParsedNodes = nrOfParsedNodes;
+		copy.compiled = compiled;
+		return copy;
 	}
 	
-	public void setStatement(Statement statement) {
-		this.statement = statement;
-		this.statement.setProgram(this);
+	/**
+	 * Checks the types in the statement of this program, and compiles it to a new code specialized to the types it finds.
+	 * A well typed program is then optimized, if it isn't yet and optimizing is turned on.
+	 * The code this program had before is left as it is, so ships already executing it aren't affected.
+	 * @throws IllegalArgumentException
+	 * 		   The program isn't well typed. The message tells where and why.
+	 */
+	public void typeCheck() throws IllegalArgumentException {
+		if(typeError != null) {throw new IllegalArgumentException(typeError);}
+		if(code != null && code.isTypeChecked() && (optimized || !optimizing || statement == null)) {return;}
+		ProgramCode checked = new ProgramCode(getVariables(), statement);
+		checked.typeCheck();
+		if(optimizing && !optimized && statement != null) {checked = optimize(checked);}
+		this.code = checked;
 	}
 	
-	private Statement statement;
+	/**
+	 * Lets this program report the type error with the given message when it is type checked, without checking it,
+	 * until its globals or its statement change. Only the program cache calls this method, on the copies of a program
+	 * it found not to be well typed.
+	 */
+	void setTypeError(String typeError) {
+		this.typeError = typeError;
+	}
+	
+	/**
+	 * The message of the type error this program reports when it is type checked, null if it has to be checked.
+	 */
+	private String typeError = null;
+	
+	/**
+	 * Optimizes the statement of the given code, which has to be type checked and may not be handed out,
+	 * makes the optimized statement the statement of this program, and returns a new type checked code of it
+	 * with the temporaries the optimizer introduced.
+	 */
+	private ProgramCode optimize(ProgramCode checked) {
+		if(nrOfParsedNodes == -1) {nrOfParsedNodes = statement.getNrOfNodes();}
+		ProgramOptimizer optimizer = new ProgramOptimizer(getVariables());
+		this.statement = optimizer.optimize(checked.getStatement());
+		temporaries.putAll(optimizer.getTemporaries());
+		this.optimized = true;
+		ProgramCode optimizedCode = new ProgramCode(getVariables(), statement);
+		optimizedCode.typeCheck();
+		return optimizedCode;
+	}
 	
-	public Ship getShip() {
-		return ship;
+	/**
+	 * Checks whether this program is optimized when it is type checked.
+	 */
+	public boolean isOptimizing() {
+		return optimizing;
 	}
 	
-	public void setShip(Ship ship) {
-		this.ship = ship;
+	/**
+	 * Sets whether this program is optimized when it is type checked. A program that is already optimized stays so.
+	 */
+	public void setOptimizing(boolean optimizing) {
+		this.optimizing = optimizing;
 	}
 	
-	private Ship ship;
+	private boolean optimizing = true;
+	
+	/**
+	 * Whether the statement of this program is optimized since it or the globals last changed.
+	 */
+	private boolean optimized = false;
 	
-	private void executeNext() {
-		statement.execute();
-		
+	/**
+	 * Returns the number of statements and expressions in this program as it was parsed.
+	 */
+	public int getNrOfParsedNodes() {
+		return nrOfParsedNodes == -1 ? getNrOfNodes() : nrOfParsedNodes;
 	}
 	
-	public void execute(int value) {
-		
-		for (int i=0; i<value; i++){
-			executeNext();
-		}
+	/**
+	 * Returns the number of statements and expressions in this program as ships execute it, after optimization.
+	 */
+	public int getNrOfNodes() {
+		return statement == null ? 0 : statement.getNrOfNodes();
+	}
+	
+	/**
+	 * The number of statements and expressions in the statement of this program before it was first optimized,
+	 * -1 if it isn't optimized.
+	 */
+	private int nrOfParsedNodes = -1;
+	
+	/**
+	 * Returns the compiled code of this program, compiling it if this program changed since it was last compiled.
+	 * The code isn't changed afterwards, by this program or otherwise.
+	 */
+	public ProgramCode getCode() {
+		if(code == null) {code = new ProgramCode(getVariables(), statement);}
+		return code;
+	}
+	
+	/**
+	 * Returns the global variables of this program followed by the temporaries the optimizer introduced,
+	 * mapping their names to their initial values.
+	 */
+	private Map<String, Type> getVariables() {
+		if(temporaries.isEmpty()) {return globals;}
+		Map<String, Type> variables = new LinkedHashMap<String, Type>(globals);
+		variables.putAll(temporaries);
+		return variables;
+	}
+	
+	/**
+	 * The temporaries the optimizer introduced in the statement of this program, which aren't declared in the program.
+	 */
+	private final Map<String, Type> temporaries = new LinkedHashMap<String, Type>();
+	
+	/**
+	 * The compiled code of this program, null if it has to be compiled again.
+	 */
+	private ProgramCode code = null;
+	
+	/**
+	 * Checks whether ships execute this program compiled to bytecode.
+	 */
+	public boolean isCompiled() {
+		return compiled;
+	}
+	
+	/**
+	 * Sets whether ships this program is handed to from now on execute it compiled to bytecode.
+	 * Compiling takes time when the program is first handed to a ship, and a Java compiler on the platform;
+	 * without one, or if the program isn't type checked, ships interpret the program.
+	 */
+	public void setCompiled(boolean compiled) {
+		this.compiled = compiled;
+	}
+	
+	private boolean compiled = false;
+	
+	public Statement getStatement() {
+		return statement;
+	}
+	
+	public void setStatement(Statement statement) {
+		this.statement = statement;
+		this.statement.setProgram(this);
+		this.code = null;
+		this.optimized = false;
+		this.typeError = null;
+		this.nrOfParsedNodes = -1;
+		this.temporaries.clear();
 	}
 	
+	private Statement statement;
 
 }
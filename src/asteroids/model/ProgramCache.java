@@ -0,0 +1,249 @@
+package asteroids.model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.antlr.v4.runtime.RecognitionException;
+
+import asteroids.IFacade.ParseOutcome;
+import asteroids.model.programs.Type;
+import asteroids.model.programs.Expression.Expression;
+import asteroids.model.programs.Statement.Statement;
+import asteroids.model.programs.parsing.ProgramFactoryImplementation;
+import asteroids.model.programs.parsing.ProgramParser;
+
+/**
+ * A class of caches of the outcomes of parsing programs, keyed by a hash of the text of the program.
+ * The cache keeps a program for every text, type checked and optimized when it is parsed, and hands out copies
+ * of it. A copy shares the statement and the code of the cached program, which never change, so a text is
+ * parsed, checked, optimized and compiled to bytecode at most once, however many programs are handed out.
+ * Every copy has globals of its own, and may be changed and handed to any number of ships without affecting
+ * the other programs parsed from the same text; every ship executes the code through an instance of its own.
+ * A program that isn't well typed is cached as it was parsed with the message of its type error, and its copies
+ * report that error when they are type checked, without checking it again. A text that fails to parse is cached
+ * with the message of the failure.
+ * The cache holds a bounded number of texts and forgets the least recently parsed text first.
+ * It may be used from several threads at once: the first thread asking for a text parses it, and the threads
+ * asking for the same text in the meantime wait for its outcome, so every text counts as a single miss.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public class ProgramCache {
+
+	/**
+	 * Creates a new cache holding the outcomes of parsing at most the given number of texts.
+	 * @throws IllegalArgumentException
+	 * 		   The capacity is not positive.
+	 */
+	public ProgramCache(int capacity) throws IllegalArgumentException {
+		if(capacity < 1) {throw new IllegalArgumentException("capacity " + capacity);}
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Returns the outcome of parsing the given text, parsing it only if this cache doesn't hold it yet.
+	 * A successful outcome holds a new copy of the cached program on every call.
+	 */
+	public ParseOutcome<Program> parse(final String text) {
+		ByteBuffer key = hash(text);
+		FutureTask<Entry> entry;
+		boolean miss;
+		synchronized(this) {
+			entry = entries.get(key);
+			miss = entry == null;
+			if(miss) {
+				nrOfMisses++;
+				entry = new FutureTask<Entry>(new Callable<Entry>() {
+					@Override
+					public Entry call() {
+						return Entry.parse(text);
+					}
+				});
+				entries.put(key, entry);
+			}
+			else {nrOfHits++;}
+		}
+		if(miss) {entry.run();}
+		Entry parsed;
+		try {parsed = await(entry);}
+		catch(RuntimeException | Error e) {
+			synchronized(this) {
+				if(entries.get(key) == entry) {entries.remove(key);}
+			}
+			throw e;
+		}
+		return parsed.getOutcome();
+	}
+
+	/**
+	 * Waits until the given entry is parsed, and returns it.
+	 * An exception thrown while parsing is thrown again.
+	 */
+	private static Entry await(FutureTask<Entry> entry) {
+		boolean interrupted = false;
+		try {
+			while(true) {
+				try {return entry.get();}
+				catch(InterruptedException e) {interrupted = true;}
+			}
+		}
+		catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException) {throw (RuntimeException) cause;}
+			if(cause instanceof Error) {throw (Error) cause;}
+			throw new IllegalStateException(cause);
+		}
+		finally {
+			if(interrupted) {Thread.currentThread().interrupt();}
+		}
+	}
+
+	/**
+	 * Returns the number of texts this cache holds the outcome of parsing.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the number of texts this cache holds at most.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	private final int capacity;
+
+	/**
+	 * Forgets the outcomes of parsing all texts. The numbers of hits, misses and evictions are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of texts this cache was asked to parse and already held.
+	 */
+	public synchronized long getNrOfHits() {
+		return nrOfHits;
+	}
+
+	private long nrOfHits = 0;
+
+	/**
+	 * Returns the number of texts this cache was asked to parse and had to parse.
+	 */
+	public synchronized long getNrOfMisses() {
+		return nrOfMisses;
+	}
+
+	private long nrOfMisses = 0;
+
+	/**
+	 * Returns the number of texts this cache forgot to make room for others.
+	 */
+	public synchronized long getNrOfEvictions() {
+		return nrOfEvictions;
+	}
+
+	private long nrOfEvictions = 0;
+
+	/**
+	 * The outcomes of parsing the texts this cache holds, keyed by the hashes of the texts, from the least
+	 * to the most recently parsed. The outcome of a text that is still being parsed isn't done yet.
+	 */
+	@SuppressWarnings("serial")
+	private final LinkedHashMap<ByteBuffer, FutureTask<Entry>> entries = new LinkedHashMap<ByteBuffer, FutureTask<Entry>>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<ByteBuffer, FutureTask<Entry>> eldest) {
+			if(size() <= capacity) {return false;}
+			nrOfEvictions++;
+			return true;
+		}
+	};
+
+	/**
+	 * Returns the SHA-256 hash of the given text encoded in UTF-8.
+	 */
+	private static ByteBuffer hash(String text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return ByteBuffer.wrap(digest.digest(text.getBytes(UTF_8)));
+		}
+		catch(NoSuchAlgorithmException e) {throw new AssertionError(e);}
+	}
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/**
+	 * A class of outcomes of parsing a text: either the message of a failure, or the program parsed from the text.
+	 */
+	private static final class Entry {
+
+		/**
+		 * Creates a new entry of a failure with the given message.
+		 */
+		Entry(String message) {
+			this.message = message;
+			this.program = null;
+			this.typeError = null;
+		}
+
+		/**
+		 * Creates a new entry of the given program, which may not be changed afterwards.
+		 * @param typeError
+		 * 		  The message of the type error of the program, null if it is well typed.
+		 */
+		Entry(Program program, String typeError) {
+			this.message = null;
+			this.program = program;
+			this.typeError = typeError;
+		}
+
+		final String message;
+
+		final Program program;
+
+		final String typeError;
+
+		/**
+		 * Parses the given text, type checks and optimizes the program if it is well typed, and returns the outcome.
+		 */
+		static Entry parse(String text) {
+			Program program = new Program();
+			ProgramFactoryImplementation factory = new ProgramFactoryImplementation();
+			factory.setProgram(program);
+			ProgramParser<Expression, Statement, Type> parser = new ProgramParser<>(factory);
+			try {
+				parser.parse(text);
+				List<String> errors = parser.getErrors();
+				if(!errors.isEmpty()) {return new Entry(errors.get(0));}
+				program.setGlobals(parser.getGlobals());
+				program.setStatement(parser.getStatement());
+			}
+			catch(RecognitionException e) {return new Entry(e.getMessage());}
+			try {program.typeCheck();}
+			catch(IllegalArgumentException illtyped) {return new Entry(program, illtyped.getMessage());}
+			return new Entry(program, null);
+		}
+
+		/**
+		 * Returns the outcome of this entry, with a new copy of its program if it is successful.
+		 * A copy of a program that isn't well typed reports the type error of this entry when it is type checked.
+		 */
+		ParseOutcome<Program> getOutcome() {
+			if(program == null) {return ParseOutcome.failure(message);}
+			Program copy = program.copy();
+			if(typeError != null) {copy.setTypeError(typeError);}
+			return ParseOutcome.success(copy);
+		}
+	}
+
+}
@@ -0,0 +1,289 @@
+package asteroids.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import asteroids.model.programs.CommandBuffer;
+import asteroids.model.programs.ProgramInstance;
+
+/**
+ * A class of schedulers executing the programs of the ships in a world.
+ * Every ship executes its program once per program period, at the times on the world clock at which the
+ * number of elapsed periods has the fractional part given by its phase. Ships that don't choose a phase get
+ * phases spread evenly over the period, so the programs don't all execute in the same tick of the world.
+ * The scheduler is a hashed timing wheel: a ring of buckets each covering a slot of the world clock, in which
+ * every ship waits in the bucket of the slot of its next execution. Advancing the clock visits the buckets of
+ * the slots that passed, so scheduling and executing a ship take constant time.
+ * The ships due at once execute their programs in two phases. First every program executes against the world as
+ * it is, recording the actions of its ship in a command buffer instead of taking them, so the programs only read
+ * the world; a parallel scheduler executes them on a fork/join pool. Then the ships take the actions in their
+ * buffers, one ship after the other in the order of their ids. Both phases give the same results however the
+ * programs are executed.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public class ProgramScheduler {
+
+	/**
+	 * Creates a new scheduler for the ships of the given world, starting at the current time of the world.
+	 */
+	public ProgramScheduler(World world) {
+		this.world = world;
+		this.slot = getSlot(world.getTime());
+		for(int i = 0; i < NR_OF_BUCKETS; i++) {buckets.add(new ArrayList<Entry>());}
+	}
+
+	private final World world;
+
+	/**
+	 * Schedules the given ship to execute its program periodically from the given time on.
+	 * The ship executes its program for the first time at the first time of its phase after the given time.
+	 * @throws IllegalArgumentException
+	 * 		   The ship is already scheduled.
+	 */
+	public void add(Ship ship, double time) throws IllegalArgumentException {
+		if(entries.containsKey(ship)) {throw new IllegalArgumentException("the ship is already scheduled");}
+		double phase = ship.getProgramPhase();
+		if(Double.isNaN(phase)) {
+			phase = (nrOfSpreadPhases * GOLDEN_RATIO) % 1;
+			nrOfSpreadPhases++;
+		}
+		double period = ship.getProgramPeriod();
+		Entry entry = new Entry(ship, (Math.floor(time/period - phase) + 1 + phase) * period);
+		entries.put(ship, entry);
+		insert(entry);
+	}
+
+	/**
+	 * Stops executing the program of the given ship. Does nothing if the ship isn't scheduled.
+	 */
+	public void remove(Ship ship) {
+		Entry entry = entries.remove(ship);
+		if(entry != null) {entry.cancelled = true;}
+	}
+
+	/**
+	 * Returns the number of ships this scheduler executes the program of.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Advances the clock of this scheduler to the given time, and executes the programs of the ships due up to
+	 * that time. A ship that missed several periods executes its program that many times at once. None of
+	 * the ships sees the actions of the others, or its own, before all of them executed; a ship leaving
+	 * the world before it takes its actions drops them.
+	 */
+	public void advance(double time) {
+		long target = getSlot(time);
+		List<Entry> due = new ArrayList<Entry>();
+		long last = Math.min(target, slot + NR_OF_BUCKETS - 1);
+		for(long visited = slot; visited <= last; visited++) {
+			for(Iterator<Entry> iterator = getBucket(visited).iterator(); iterator.hasNext();) {
+				Entry entry = iterator.next();
+				if(entry.cancelled) {iterator.remove();}
+				else if(entry.time <= time) {
+					iterator.remove();
+					due.add(entry);
+				}
+			}
+		}
+		this.slot = Math.max(slot, target);
+		if(due.isEmpty()) {return;}
+		for(Entry entry : due) {
+			double period = entry.ship.getProgramPeriod();
+			entry.runs = (int) Math.floor((time - entry.time)/period) + 1;
+			entry.time = entry.time + entry.runs*period;
+			insert(entry);
+		}
+		if(parallel && due.size() > 1) {POOL.invoke(new ExecutionTask(due, 0, due.size()));}
+		else {execute(due, 0, due.size());}
+		Collections.sort(due, BY_SHIP_ID);
+		for(Entry entry : due) {
+			if(entry.ship.getWorld() == world && !entry.cancelled) {entry.buffer.apply(entry.ship);}
+			else {entry.buffer.clear();}
+		}
+		nrOfExecutions += due.size();
+	}
+
+	/**
+	 * Executes the programs of the ships of the given entries from the given index up to the given index,
+	 * recording their actions in the buffers of the entries.
+	 */
+	private void execute(List<Entry> due, int from, int to) {
+		for(int i = from; i < to; i++) {
+			Entry entry = due.get(i);
+			ProgramInstance instance = entry.ship.getProgramInstance();
+			if(instance != null && entry.ship.getWorld() == world && !entry.cancelled) {instance.execute(entry.runs, entry.buffer);}
+		}
+	}
+
+	/**
+	 * A class of tasks executing the programs of a range of due ships on the fork/join pool,
+	 * splitting the range until it is small.
+	 */
+	private class ExecutionTask extends RecursiveAction {
+
+		ExecutionTask(List<Entry> due, int from, int to) {
+			this.due = due;
+			this.from = from;
+			this.to = to;
+		}
+
+		private final List<Entry> due;
+
+		private final int from;
+
+		private final int to;
+
+		@Override
+		protected void compute() {
+			if(to - from <= GRAIN) {
+				execute(due, from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ExecutionTask(due, from, middle), new ExecutionTask(due, middle, to));
+		}
+
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Checks whether this scheduler executes the programs of the ships due at once in parallel.
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Sets whether this scheduler executes the programs of the ships due at once in parallel.
+	 * The results are the same either way, except for the order in which programs print.
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	private boolean parallel = false;
+
+	/**
+	 * The pool executing the programs of parallel schedulers, shared by all worlds.
+	 */
+	private static final ForkJoinPool POOL = new ForkJoinPool();
+
+	/**
+	 * The number of ships a task executes the programs of without splitting its range further.
+	 */
+	private static final int GRAIN = 4;
+
+	/**
+	 * Orders entries by the ids of their ships.
+	 */
+	private static final Comparator<Entry> BY_SHIP_ID = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry entry1, Entry entry2) {
+			return Long.compare(entry1.ship.getId(), entry2.ship.getId());
+		}
+	};
+
+	/**
+	 * Returns the number of times this scheduler let a ship execute its program.
+	 */
+	public long getNrOfExecutions() {
+		return nrOfExecutions;
+	}
+
+	private long nrOfExecutions = 0;
+
+	/**
+	 * Inserts the given entry in the bucket of the slot of its due time.
+	 */
+	private void insert(Entry entry) {
+		getBucket(getSlot(entry.time)).add(entry);
+	}
+
+	/**
+	 * Returns the slot of the world clock the given time lies in.
+	 */
+	private static long getSlot(double time) {
+		return (long) Math.floor(time/RESOLUTION);
+	}
+
+	/**
+	 * Returns the bucket of the given slot.
+	 */
+	private List<Entry> getBucket(long slot) {
+		return buckets.get((int) (slot % NR_OF_BUCKETS));
+	}
+
+	/**
+	 * The slot of the world clock this scheduler advanced to.
+	 */
+	private long slot;
+
+	/**
+	 * The buckets of the timing wheel, each holding the ships due in the slots it covers.
+	 */
+	private final List<List<Entry>> buckets = new ArrayList<List<Entry>>(NR_OF_BUCKETS);
+
+	/**
+	 * The entries of the scheduled ships.
+	 */
+	private final Map<Ship, Entry> entries = new HashMap<Ship, Entry>();
+
+	/**
+	 * The number of ships that were given a spread phase.
+	 */
+	private int nrOfSpreadPhases = 0;
+
+	/**
+	 * The length of the slot of the world clock a bucket covers, a frame at 60 frames per second.
+	 */
+	public static final double RESOLUTION = 1.0/60;
+
+	/**
+	 * The number of buckets of the timing wheel, which covers a little more than a second.
+	 */
+	public static final int NR_OF_BUCKETS = 64;
+
+	/**
+	 * The fractional part of the golden ratio. The multiples of this number are spread evenly over the unit
+	 * interval however many are taken, so the phases given to the ships stay spread as ships are added.
+	 */
+	private static final double GOLDEN_RATIO = 0.6180339887498949;
+
+	/**
+	 * A class of entries of the timing wheel, holding a ship, the time at which its program executes next
+	 * and the buffer recording the actions of the ship while its program executes.
+	 */
+	private static class Entry {
+
+		Entry(Ship ship, double time) {
+			this.ship = ship;
+			this.time = time;
+		}
+
+		final Ship ship;
+
+		double time;
+
+		/**
+		 * The number of times the program executes in the current advance of the clock.
+		 */
+		int runs = 0;
+
+		final CommandBuffer buffer = new CommandBuffer();
+
+		volatile boolean cancelled = false;
+	}
+
+}
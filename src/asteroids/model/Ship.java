@@ -1,7 +1,10 @@
 package asteroids.model;
 
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import asteroids.Util.*;
+import asteroids.model.programs.ProgramInstance;
 
 import be.kuleuven.cs.som.annotate.*;
 
@@ -53,12 +56,26 @@ public class Ship extends SpaceObject {
 	
 	public Ship(Vector position, Vector velocity, double radius, double angle, double mass) {
 		
-		super(position, velocity, radius);							
+		super(position, velocity, radius);
+		this.id = nextId.getAndIncrement();
 		setAngle(angle);
 		setMass(mass);
 		setAcceleration(mass);
 		}
 	
+	/**
+	 * @return The id of this ship, which is unique among the ships created by this virtual machine.
+	 * 		   Ships created later have larger ids.
+	 */
+	@Basic @Immutable
+	public long getId() {
+		return id;
+	}
+
+	private final long id;
+
+	private static final AtomicLong nextId = new AtomicLong();
+
 	/**
 	 * @return The ship's current acceleration in space, expressed in km/s.
 	 */
@@ -97,9 +114,9 @@ public class Ship extends SpaceObject {
 		
 		if (dt>0){
 			
-		double xpos = (getPosition().getX() + getVelocity().getX()*dt);
-		double ypos = (getPosition().getY() + getVelocity().getY()*dt);
-		setPosition(new Vector(xpos,ypos));
+		double xpos = (getXPosition() + getXVelocity()*dt);
+		double ypos = (getYPosition() + getYVelocity()*dt);
+		setPosition(xpos,ypos);
 		thrust(dt);
 		}
 	}
@@ -153,9 +170,9 @@ public class Ship extends SpaceObject {
 		
 		if (thrusterActive) {
 		
-		double xVelocity = (this.getVelocity().getX() + (dt*this.getAcceleration()*Math.cos(this.getDirection())));
-		double yVelocity = (this.getVelocity().getY() + (dt*this.getAcceleration()*Math.cos(this.getDirection())));
-		setVelocity(new Vector(xVelocity, yVelocity));
+		double xVelocity = (this.getXVelocity() + (dt*this.getAcceleration()*Math.cos(this.getDirection())));
+		double yVelocity = (this.getYVelocity() + (dt*this.getAcceleration()*Math.cos(this.getDirection())));
+		setVelocity(xVelocity, yVelocity);
 		}
 		
 	}
@@ -245,6 +262,19 @@ public class Ship extends SpaceObject {
 	 */
 	private double mass;
 	
+	/**
+	 * Returns the number of bullets fired by this ship that are still in its world.
+	 * @return | if(getWorld() == null) then result == 0 else result == getWorld().getNrOfBulletsFrom(this)
+	 */
+	public int getNrOfLiveBullets() {
+		return getWorld() == null ? 0 : getWorld().getNrOfBulletsFrom(this);
+	}
+	
+	/**
+	 * The maximum number of live bullets a ship can have fired.
+	 */
+	public static final int MAX_LIVE_BULLETS = 3;
+	
 	/**
 	 * The ship fires a bullet.
 	 * 
@@ -254,7 +284,7 @@ public class Ship extends SpaceObject {
 	
 	public void fireBullet() {
 		
-		if(this.getWorld()==null || this.getWorld().getNrOfBulletsFrom(this) >= 3) {return;}
+		if(this.getWorld()==null || this.getWorld().getNrOfBulletsFrom(this) >= MAX_LIVE_BULLETS) {return;}
 		
 		double bulletRadius = 3;
 		double bulletSpeed = 250;
@@ -264,7 +294,7 @@ public class Ship extends SpaceObject {
 		Vector velocity = getVelocity().add(addVelocity);
 		Bullet bullet = new Bullet(position, velocity, bulletRadius,this);
 		this.getWorld().addObject(bullet);
-		for (SpaceObject secondObject : getWorld().getObjects())
+		for (SpaceObject secondObject : getWorld().getObjectsNear(bullet))
 		{
 			if(bullet.overlap(secondObject) && bullet != secondObject) {
 				bullet.resolve(secondObject);
@@ -313,14 +343,16 @@ public class Ship extends SpaceObject {
 	}
 	
 	/**
-	 * Sets a certain program for this ship.
+	 * Sets a certain program for this ship. The ship executes the program in an instance of its own,
+	 * so the program can be handed to other ships as well.
 	 * @param program
 	 * 		  The program this ship will be associated with.
 	 */
 	@Basic
 	public void setProgram(Program program) {
 		this.program = program;
-		program.setShip(this);
+		this.programInstance = program == null ? null : new ProgramInstance(program.getCode(), this, program.isCompiled());
+		if(programInstance != null) {programInstance.setBudget(instructionBudget);}
 	}
 	
 	/**
@@ -328,6 +360,88 @@ public class Ship extends SpaceObject {
 	 */
 	private Program program = null;
 	
+	/**
+	 * Returns the execution of the program of this ship, null if this ship has no program.
+	 */
+	public ProgramInstance getProgramInstance() {
+		return this.programInstance;
+	}
+	
+	/**
+	 * The execution of the program of this ship.
+	 */
+	private ProgramInstance programInstance = null;
+	
+	/**
+	 * Returns the number of statements the program of this ship may execute per tick of its world.
+	 * A program that exceeds its budget is suspended, and resumes where it left off on the next tick.
+	 */
+	@Basic
+	public long getInstructionBudget() {
+		return this.instructionBudget;
+	}
+	
+	/**
+	 * Sets the number of statements the program of this ship may execute per tick of its world.
+	 * @throws IllegalArgumentException
+	 * 		   The budget isn't positive.
+	 */
+	public void setInstructionBudget(long budget) throws IllegalArgumentException {
+		if(budget <= 0) {throw new IllegalArgumentException("budget " + budget);}
+		this.instructionBudget = budget;
+		if(programInstance != null) {programInstance.setBudget(budget);}
+	}
+	
+	private long instructionBudget = ProgramInstance.DEFAULT_BUDGET;
+	
+	/**
+	 * Returns the time (in seconds) between two executions of the program of this ship.
+	 */
+	@Basic
+	public double getProgramPeriod() {
+		return this.programPeriod;
+	}
+	
+	/**
+	 * Sets the time (in seconds) between two executions of the program of this ship.
+	 * The new period applies from the next execution on.
+	 * @throws IllegalArgumentException
+	 * 		   The period isn't a positive number.
+	 */
+	public void setProgramPeriod(double period) throws IllegalArgumentException {
+		if(!(period > 0) || Double.isInfinite(period)) {throw new IllegalArgumentException("period " + period);}
+		this.programPeriod = period;
+	}
+	
+	/**
+	 * The default time between two executions of the program of a ship.
+	 */
+	public static final double DEFAULT_PROGRAM_PERIOD = 0.2;
+	
+	private double programPeriod = DEFAULT_PROGRAM_PERIOD;
+	
+	/**
+	 * Returns the phase of the executions of the program of this ship, the fraction of its period by which they
+	 * are offset on the clock of the world, or NaN if the world chooses the phase.
+	 */
+	@Basic
+	public double getProgramPhase() {
+		return this.programPhase;
+	}
+	
+	/**
+	 * Sets the phase of the executions of the program of this ship, NaN to let the world choose it.
+	 * The phase applies when this ship is next added to a world.
+	 * @throws IllegalArgumentException
+	 * 		   The phase is a number outside [0, 1).
+	 */
+	public void setProgramPhase(double phase) throws IllegalArgumentException {
+		if(phase < 0 || phase >= 1) {throw new IllegalArgumentException("phase " + phase);}
+		this.programPhase = phase;
+	}
+	
+	private double programPhase = Double.NaN;
+	
 	/**
 	 * Executes a program one or multiple times depending on the parameter.
 	 * Does nothing if this ship has no program available.
@@ -335,9 +449,9 @@ public class Ship extends SpaceObject {
 	 */
 	public void execute(int value) {
 		
-		Program program = getProgram();
-		if(program != null) {
-			program.execute(value);}
+		ProgramInstance instance = getProgramInstance();
+		if(instance != null) {
+			instance.execute(value);}
 	}
 	
 }
@@ -1,6 +1,8 @@
 package asteroids.model;
 import asteroids.Util;
 import be.kuleuven.cs.som.annotate.*;
+import java.util.HashSet;
+import java.util.Set;
 
 
 /**
@@ -51,12 +53,45 @@ public abstract class SpaceObject {
 	
 	/**
 	 * Returns the position of the space object.
+	 * If the world of this space object is event driven, the position is first brought up to the clock of that world.
 	 * @return position
 	 */
 	@Basic
 	public Vector getPosition() {
 		
-		return this.Position;
+		return new Vector(getXPosition(), getYPosition());
+	}
+	
+	/**
+	 * Returns the x-coordinate of the position of the space object, without creating a vector.
+	 * Reading the position doesn't change this space object, so space objects may be read from several threads at once.
+	 * @return | getPosition().getX()
+	 */
+	public double getXPosition() {
+		
+		if(store != null) {return extrapolate(store.getX(storeIndex), store.getXVelocity(storeIndex), store.getTime(storeIndex));}
+		return extrapolate(this.xPosition, this.xVelocity, this.positionTime);
+	}
+	
+	/**
+	 * Returns the y-coordinate of the position of the space object, without creating a vector.
+	 * Reading the position doesn't change this space object, so space objects may be read from several threads at once.
+	 * @return | getPosition().getY()
+	 */
+	public double getYPosition() {
+		
+		if(store != null) {return extrapolate(store.getY(storeIndex), store.getYVelocity(storeIndex), store.getTime(storeIndex));}
+		return extrapolate(this.yPosition, this.yVelocity, this.positionTime);
+	}
+	
+	/**
+	 * Returns the given coordinate, stored at the given time, moved along the given velocity up to the clock
+	 * of the world, the way synchronizePosition() moves it, without storing it.
+	 */
+	private double extrapolate(double coordinate, double velocity, double time) {
+		World world = getWorld();
+		if(world == null || !world.isEventDriven() || world.getTime() == time) {return coordinate;}
+		return coordinate + velocity*(world.getTime() - time);
 	}
 	
 	/**
@@ -69,14 +104,129 @@ public abstract class SpaceObject {
 	 */
 	public void setPosition(Vector newPos) {
 		if(newPos == null) {throw new NullPointerException();}
-		this.Position = newPos;
+		setPosition(newPos.getX(), newPos.getY());
+	}
+	
+	/**
+	 * Sets a new position in space for this space object, without creating a vector.
+	 * @param x
+	 * 		  The new x-coordinate of this space object.
+	 * @param y
+	 * 		  The new y-coordinate of this space object.
+	 * @post | new.getXPosition() == x && new.getYPosition() == y
+	 * @throws IllegalArgumentException
+	 * 		   One of the coordinates is not a number.
+	 * 		   | Double.isNaN(x) || Double.isNaN(y)
+	 */
+	public void setPosition(double x, double y) throws IllegalArgumentException {
+		if(Double.isNaN(x) || Double.isNaN(y)) {throw new IllegalArgumentException();}
+		if(store != null) {
+			store.setPosition(storeIndex, x, y, getClock());
+			return;
+		}
+		this.xPosition = x;
+		this.yPosition = y;
+		this.positionTime = getClock();
 		
 	}
 	
 	/**
-	 * The current position of the space object.
+	 * The position of the space object at the time positionTime.
+	 */
+	private double xPosition;
+	private double yPosition;
+	
+	/**
+	 * The time on the clock of the world of this space object at which it was at its stored position.
+	 */
+	private double positionTime = 0;
+	
+	/**
+	 * Brings the stored position of this space object up to the clock of its world.
+	 * If the world is event driven, the space object is moved along its velocity over the time that passed
+	 * since its position was last stored. Otherwise the world moves the space object itself and the stored position is current.
+	 */
+	void synchronizePosition() {
+		
+		World world = getWorld();
+		if(world == null) {return;}
+		double now = world.getTime();
+		if(store != null) {
+			store.synchronize(storeIndex, now, world.isEventDriven());
+			return;
+		}
+		if(world.isEventDriven() && now != positionTime) {
+			double dt = now - positionTime;
+			this.xPosition = xPosition + xVelocity*dt;
+			this.yPosition = yPosition + yVelocity*dt;
+		}
+		this.positionTime = now;
+	}
+	
+	/**
+	 * Moves the position and velocity of this space object into the given store.
+	 * From then on this space object reads and writes its state through the store.
+	 * @param store
+	 * 		  The store to attach this space object to.
+	 */
+	void attachStore(SpaceObjectStore store) {
+		
+		detachStore();
+		synchronizePosition();
+		this.storeIndex = store.add(this, xPosition, yPosition, positionTime, xVelocity, yVelocity);
+		this.store = store;
+	}
+	
+	/**
+	 * Moves the position and velocity of this space object out of its store, back into this space object.
+	 * Nothing happens if this space object isn't attached to a store.
+	 */
+	void detachStore() {
+		
+		if(store == null) {return;}
+		synchronizePosition();
+		SpaceObjectStore store = this.store;
+		this.xPosition = store.getX(storeIndex);
+		this.yPosition = store.getY(storeIndex);
+		this.positionTime = store.getTime(storeIndex);
+		this.xVelocity = store.getXVelocity(storeIndex);
+		this.yVelocity = store.getYVelocity(storeIndex);
+		this.store = null;
+		store.remove(storeIndex);
+		this.storeIndex = -1;
+	}
+	
+	/**
+	 * Returns the entity id of this space object in its store, -1 if it isn't attached to a store.
+	 */
+	int getStoreIndex() {
+		return storeIndex;
+	}
+	
+	/**
+	 * Sets the entity id of this space object in its store, when the store moves it to another id.
+	 */
+	void setStoreIndex(int storeIndex) {
+		this.storeIndex = storeIndex;
+	}
+	
+	/**
+	 * The store holding the position and velocity of this space object, null if this space object holds them itself.
+	 */
+	private SpaceObjectStore store = null;
+	
+	/**
+	 * The entity id of this space object in its store.
+	 */
+	private int storeIndex = -1;
+	
+	/**
+	 * @return The current time on the clock of the world of this space object, zero if it has no world.
 	 */
-	protected Vector Position;
+	private double getClock() {
+		if(getWorld() == null) {return 0;}
+		return getWorld().getTime();
+	}
 	
 	/**
 	 * Returns the velocity of the space object.
@@ -85,10 +235,28 @@ public abstract class SpaceObject {
 	@Basic
 	public Vector getVelocity() {
 		
-		return this.Velocity;
+		return new Vector(getXVelocity(), getYVelocity());
 	}
 	
+	/**
+	 * Returns the x-component of the velocity of the space object, without creating a vector.
+	 * @return | getVelocity().getX()
+	 */
+	public double getXVelocity() {
+		
+		if(store != null) {return store.getXVelocity(storeIndex);}
+		return this.xVelocity;
+	}
 	
+	/**
+	 * Returns the y-component of the velocity of the space object, without creating a vector.
+	 * @return | getVelocity().getY()
+	 */
+	public double getYVelocity() {
+		
+		if(store != null) {return store.getYVelocity(storeIndex);}
+		return this.yVelocity;
+	}
 	
 	/**
 	 * Sets the given velocity as the new velocity of the space object.
@@ -97,13 +265,35 @@ public abstract class SpaceObject {
 	 * 
 	 * @post The given velocity is set as the new position of the space object.
 	 * 		 |new.getVelocity().equals(velocity)
+	 * @effect If this space object is in a world, it is marked as modified, so its collisions are predicted again.
+	 * 		 | if(getWorld() != null) then getWorld().addModifiedSpaceObject(this)
 	 */
 	public void setVelocity(Vector newVelocity) {
-		if(!isValidVelocity(newVelocity)) {
-			double factor = (SPEED_OF_LIGHT)/(newVelocity.getNorm());
-			this.Velocity = new Vector(newVelocity.getX()*factor,newVelocity.getY()*factor);
+		setVelocity(newVelocity.getX(), newVelocity.getY());
+	}
+	
+	/**
+	 * Sets the given velocity as the new velocity of the space object, without creating a vector.
+	 * @param xVelocity
+	 * 		  The new x-component of the velocity.
+	 * @param yVelocity
+	 * 		  The new y-component of the velocity.
+	 * @effect | setVelocity(new Vector(xVelocity, yVelocity))
+	 */
+	public void setVelocity(double xVelocity, double yVelocity) {
+		synchronizePosition();
+		incrementEventCount();
+		if(!isValidVelocity(xVelocity, yVelocity)) {
+			double factor = (SPEED_OF_LIGHT)/(Math.sqrt(Math.pow(xVelocity, 2) + Math.pow(yVelocity, 2)));
+			this.xVelocity = xVelocity*factor;
+			this.yVelocity = yVelocity*factor;
+		}
+		if(store != null) {store.setVelocity(storeIndex, xVelocity, yVelocity);}
+		else {
+			this.xVelocity = xVelocity;
+			this.yVelocity = yVelocity;
 		}
-		this.Velocity = newVelocity;
+		if(getWorld() != null) {getWorld().addModifiedSpaceObject(this);}
 	}
 	
 	/**
@@ -115,7 +305,15 @@ public abstract class SpaceObject {
 	 * 			| result == velocity <= SPEED_OF_LIGHT
 	 */
 	private boolean isValidVelocity(Vector velocity){
-		return velocity.getNorm() < SPEED_OF_LIGHT;
+		return isValidVelocity(velocity.getX(), velocity.getY());
+	}
+	
+	/**
+	 * Return true if the velocity with the given components has a valid value.
+	 * @return | result == isValidVelocity(new Vector(xVelocity, yVelocity))
+	 */
+	private boolean isValidVelocity(double xVelocity, double yVelocity){
+		return Math.sqrt(Math.pow(xVelocity, 2) + Math.pow(yVelocity, 2)) < SPEED_OF_LIGHT;
 	}
 	
 	/**
@@ -126,7 +324,8 @@ public abstract class SpaceObject {
 	/**
 	 * The space object's current velocity in space.
 	 */
-	protected Vector Velocity;
+	private double xVelocity;
+	private double yVelocity;
 	
 	/**
 	 * Moves the space object for a duration <code>dt</code> according to its current state.
@@ -141,11 +340,20 @@ public abstract class SpaceObject {
 	
 	public void move(double dt){	
 		
+		drift(dt);
+	}
+	
+	/**
+	 * Moves the space object for a duration <code>dt</code> along its current velocity, without any thrust.
+	 * @param dt Specifies the duration of the move.
+	 */
+	final void drift(double dt){
+		
 		if (dt>0){
 			
-		double xpos = (getPosition().getX() + getVelocity().getX()*dt);
-		double ypos = (getPosition().getY() + getVelocity().getY()*dt);
-		setPosition(new Vector(xpos,ypos));
+		double xpos = (getXPosition() + getXVelocity()*dt);
+		double ypos = (getYPosition() + getYVelocity()*dt);
+		setPosition(xpos,ypos);
 		}
 	}
 	
@@ -168,7 +376,11 @@ public abstract class SpaceObject {
 	 */
 	public void setWorld(World world) {
 		if (this.canHaveAsWorld(world))
-		{this.world = world;}
+		{
+			synchronizePosition();
+			this.world = world;
+			this.positionTime = getClock();
+		}
 	}
 	
 	/**
@@ -219,8 +431,8 @@ public abstract class SpaceObject {
 	 */
 	public boolean fitsInWorld (World world) {
 		
-		double xpos = getPosition().getX();
-		double ypos = getPosition().getY();
+		double xpos = getXPosition();
+		double ypos = getYPosition();
 		double radius = getRadius();
 		
 		if (xpos-radius <= 0 || xpos+radius >= world.getWorldWidth() || ypos-radius <= 0 || ypos+radius >= world.getWorldHeight())
@@ -235,6 +447,57 @@ public abstract class SpaceObject {
 	 */
 	protected World world;
 	
+	/**
+	 * Returns the predicted collisions this space object is involved in.
+	 */
+	Set<Collision> getCollisions() {
+		return collisions;
+	}
+	
+	/**
+	 * Registers a predicted collision this space object is involved in.
+	 * @param collision
+	 */
+	void addCollision(Collision collision) {
+		collisions.add(collision);
+	}
+	
+	/**
+	 * Unregisters a predicted collision this space object is involved in.
+	 * @param collision
+	 */
+	void removeCollision(Collision collision) {
+		collisions.remove(collision);
+	}
+	
+	/**
+	 * The predicted collisions this space object is involved in, kept by its world
+	 * so the collisions of a single space object can be found without scanning all collisions.
+	 */
+	private final Set<Collision> collisions = new HashSet<Collision>();
+	
+	/**
+	 * Returns the number of events that changed the motion of this space object.
+	 * A predicted collision is stale as soon as the event count of one of its space objects differs from
+	 * the count at the time of its prediction.
+	 */
+	@Basic
+	public int getEventCount() {
+		return eventCount;
+	}
+	
+	/**
+	 * Increments the event count of this space object, invalidating all its predicted collisions.
+	 */
+	void incrementEventCount() {
+		eventCount++;
+	}
+	
+	/**
+	 * The number of events that changed the motion of this space object.
+	 */
+	private int eventCount = 0;
+	
 	/**
 	 * Returns the space object's radius.
 	 * @return radius
@@ -323,7 +586,7 @@ public abstract class SpaceObject {
 	 */
 	public double getDistanceBetween(SpaceObject secondObject) {
 		
-		double centerDistanceSquared = Math.pow(secondObject.getPosition().getX()-this.getPosition().getX() , 2) + Math.pow(secondObject.getPosition().getY()-this.getPosition().getY(), 2);
+		double centerDistanceSquared = Math.pow(secondObject.getXPosition()-this.getXPosition() , 2) + Math.pow(secondObject.getYPosition()-this.getYPosition(), 2);
 		return Math.sqrt(centerDistanceSquared);
 		
 	}
@@ -376,12 +639,19 @@ public abstract class SpaceObject {
 	 */
 	public double getTimeToCollision(SpaceObject secondObject) {
 	
-		Vector deltaR 		= secondObject.getPosition().subtract(this.getPosition());
-		Vector deltaV 		= secondObject.getVelocity().subtract(this.getVelocity());
+		if(store != null && secondObject.store == store) {
+			synchronizePosition();
+			secondObject.synchronizePosition();
+			return store.getTimeToCollision(storeIndex, secondObject.storeIndex);
+		}
+		double deltaRx		= secondObject.getXPosition() - this.getXPosition();
+		double deltaRy		= secondObject.getYPosition() - this.getYPosition();
+		double deltaVx		= secondObject.getXVelocity() - this.getXVelocity();
+		double deltaVy		= secondObject.getYVelocity() - this.getYVelocity();
 		double sigma 		= getRadius() + secondObject.getRadius();
-		double deltaVdeltaR = deltaV.multiply(deltaR);
-		double RSquared		= deltaR.multiply(deltaR);
-		double VSquared		= deltaV.multiply(deltaV);
+		double deltaVdeltaR = deltaVx*deltaRx + deltaVy*deltaRy;
+		double RSquared		= deltaRx*deltaRx + deltaRy*deltaRy;
+		double VSquared		= deltaVx*deltaVx + deltaVy*deltaVy;
 		double d 			= Math.pow(deltaVdeltaR, 2) - VSquared*(RSquared - Math.pow(sigma, 2));
 
 		if(deltaVdeltaR >= 0||d < 0  )
@@ -426,13 +696,13 @@ public abstract class SpaceObject {
 		if(deltaT == Double.POSITIVE_INFINITY) return null;
 			
 		double[] collisionPos = new double[2];
-		double theta = Math.atan2(secondObject.getPosition().getY()-this.getPosition().getY(), secondObject.getPosition().getX()-this.getPosition().getX());
-		if ((secondObject.getPosition().getX()-this.getPosition().getX())<0) {
+		double theta = Math.atan2(secondObject.getYPosition()-this.getYPosition(), secondObject.getXPosition()-this.getXPosition());
+		if ((secondObject.getXPosition()-this.getXPosition())<0) {
 			theta+=Math.PI*2;
 		}
 		
-		collisionPos[0] = this.getPosition().getX() + this.radius * Math.cos(theta);
-		collisionPos [1] = this.getPosition().getY() + this.radius * Math.sin(theta);
+		collisionPos[0] = this.getXPosition() + this.radius * Math.cos(theta);
+		collisionPos [1] = this.getYPosition() + this.radius * Math.sin(theta);
 		return collisionPos;
 	}
 		
@@ -468,22 +738,21 @@ public abstract class SpaceObject {
 		assert(!secondObject.equals(this));
 		
 		double sigma = getSumOfRadii(secondObject);
-		double deltaRx = secondObject.getPosition().getX()-this.getPosition().getX();
-		double deltaRy = secondObject.getPosition().getY()-this.getPosition().getY();
-		double deltaVx = secondObject.getVelocity().getX()- this.getVelocity().getX();
-		double deltaVy = secondObject.getVelocity().getY()-this.getVelocity().getY();
+		double deltaRx = secondObject.getXPosition()-this.getXPosition();
+		double deltaRy = secondObject.getYPosition()-this.getYPosition();
+		double deltaVx = secondObject.getXVelocity()- this.getXVelocity();
+		double deltaVy = secondObject.getYVelocity()-this.getYVelocity();
 		double deltaVR = (deltaVx*deltaRx)+(deltaVy*deltaRy);
 	
 		double J = (2*this.getMass()*secondObject.getMass()*deltaVR)/(sigma*(this.getMass()+secondObject.getMass()));
 		double Jx = (J*deltaRx)/(sigma);
 		double Jy = (J*deltaRy)/(sigma);
-		double newxvelocity = this.getVelocity().getX()+(Jx/this.getMass());
-		double newyvelocity = this.getVelocity().getY()+(Jy/this.getMass());
-		setVelocity(new Vector(newxvelocity,newyvelocity));
-		double newxvelocity2 = secondObject.getVelocity().getX()-(Jx/secondObject.getMass());
-		double newyvelocity2 = secondObject.getVelocity().getY()-(Jy/secondObject.getMass());
-		secondObject.setVelocity(new Vector(newxvelocity2,newyvelocity2));
-		secondObject.getWorld().addModifiedSpaceObject(secondObject);
+		double newxvelocity = this.getXVelocity()+(Jx/this.getMass());
+		double newyvelocity = this.getYVelocity()+(Jy/this.getMass());
+		setVelocity(newxvelocity,newyvelocity);
+		double newxvelocity2 = secondObject.getXVelocity()-(Jx/secondObject.getMass());
+		double newyvelocity2 = secondObject.getYVelocity()-(Jy/secondObject.getMass());
+		secondObject.setVelocity(newxvelocity2,newyvelocity2);
 	}
 	
 	/**
@@ -519,28 +788,32 @@ public abstract class SpaceObject {
 	 */
 	public double getTimeToBoundaryCollision() {
 		
+		if(store != null) {
+			synchronizePosition();
+			return store.getTimeToBoundaryCollision(storeIndex, getWorld().getWorldWidth(), getWorld().getWorldHeight());
+		}
 		double worldwidth = getWorld().getWorldWidth();
 		double worldheight = getWorld().getWorldHeight();
 		
 		double timeToBoundaryX;
 		double timeToBoundaryY;
 
-		if(Util.fuzzyLessThanOrEqualTo(this.getVelocity().getY(),0)) {
+		if(Util.fuzzyLessThanOrEqualTo(this.getYVelocity(),0)) {
 			
-			timeToBoundaryY = Math.abs((getPosition().getY()- getRadius())/(getVelocity().getY()));}
+			timeToBoundaryY = Math.abs((getYPosition()- getRadius())/(getYVelocity()));}
 		
 		else {
 			
-			timeToBoundaryY = Math.abs((worldheight - getPosition().getY() - getRadius())/(getVelocity().getY()));
+			timeToBoundaryY = Math.abs((worldheight - getYPosition() - getRadius())/(getYVelocity()));
 		}
 		
-		if(Util.fuzzyLessThanOrEqualTo(this.getVelocity().getX(),0)) {
+		if(Util.fuzzyLessThanOrEqualTo(this.getXVelocity(),0)) {
 			
-			timeToBoundaryX = Math.abs((getPosition().getX()- getRadius())/(getVelocity().getX()));}
+			timeToBoundaryX = Math.abs((getXPosition()- getRadius())/(getXVelocity()));}
 		
 		else {
 			
-			timeToBoundaryX = Math.abs((worldwidth - getPosition().getX() - getRadius())/(getVelocity().getX()));
+			timeToBoundaryX = Math.abs((worldwidth - getXPosition() - getRadius())/(getXVelocity()));
 		}
 		
 		
@@ -566,15 +839,14 @@ public abstract class SpaceObject {
 	{
 		if(getWorld()==null) throw new NullPointerException();
 		
-		if(Util.fuzzyEquals(getPosition().getX(),getRadius()) || 
-				Util.fuzzyEquals((getPosition().getX() + getRadius()), getWorld().getWorldWidth())) {
+		if(Util.fuzzyEquals(getXPosition(),getRadius()) || 
+				Util.fuzzyEquals((getXPosition() + getRadius()), getWorld().getWorldWidth())) {
 			
-			setVelocity(new Vector(-(this.getVelocity().getX()),this.getVelocity().getY()));
+			setVelocity(-(this.getXVelocity()),this.getYVelocity());
 		}
 		
 		else {
-			setVelocity(new Vector(this.getVelocity().getX(),-(this.getVelocity().getY())));}
-		getWorld().addModifiedSpaceObject(this);
+			setVelocity(this.getXVelocity(),-(this.getYVelocity()));}
 		
 		
 	}
@@ -0,0 +1,271 @@
+package asteroids.model;
+
+import java.util.Arrays;
+
+import asteroids.Util;
+
+/**
+ * A class of stores keeping the kinematic state of the space objects in a world in parallel arrays.
+ * Every space object in the store has an entity id, the index of its state in the arrays. The store holds
+ * the position of each space object together with the time on the clock at which it was its position,
+ * its velocity, radius, mass and type. A space object attached to a store is only a handle: it reads and
+ * writes its position and velocity through the store, so the world can move all space objects and predict
+ * their collisions in loops over primitive arrays.
+ * The entity ids are dense: removing a space object moves the last space object in the store to its id.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public class SpaceObjectStore {
+
+	/**
+	 * The type tags of the space objects in a store.
+	 */
+	public static final byte SHIP = 0;
+	public static final byte ASTEROID = 1;
+	public static final byte BULLET = 2;
+
+	/**
+	 * Returns the number of space objects in this store.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds a space object to this store with the given state.
+	 * @param spaceobject
+	 * 		  The space object to add.
+	 * @param x
+	 * @param y
+	 * 		  The position of the space object at the given time.
+	 * @param time
+	 * 		  The time at which the space object is at the given position.
+	 * @param vx
+	 * @param vy
+	 * 		  The velocity of the space object.
+	 * @return The entity id of the space object in this store.
+	 */
+	int add(SpaceObject spaceobject, double x, double y, double time, double vx, double vy) {
+
+		if(size == objects.length) {grow();}
+		int id = size++;
+		objects[id] = spaceobject;
+		this.x[id] = x;
+		this.y[id] = y;
+		this.time[id] = time;
+		this.vx[id] = vx;
+		this.vy[id] = vy;
+		radius[id] = spaceobject.getRadius();
+		mass[id] = spaceobject.getMass();
+		type[id] = getType(spaceobject);
+		return id;
+	}
+
+	/**
+	 * Removes the space object with the given entity id from this store.
+	 * The last space object in this store takes over the entity id.
+	 * @param id
+	 * 		  The entity id of the space object to remove.
+	 */
+	void remove(int id) {
+
+		int last = --size;
+		if(id != last) {
+			objects[id] = objects[last];
+			x[id] = x[last];
+			y[id] = y[last];
+			time[id] = time[last];
+			vx[id] = vx[last];
+			vy[id] = vy[last];
+			radius[id] = radius[last];
+			mass[id] = mass[last];
+			type[id] = type[last];
+			objects[id].setStoreIndex(id);
+		}
+		objects[last] = null;
+	}
+
+	/**
+	 * Doubles the capacity of this store.
+	 */
+	private void grow() {
+		int capacity = 2*objects.length;
+		objects = Arrays.copyOf(objects, capacity);
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		time = Arrays.copyOf(time, capacity);
+		vx = Arrays.copyOf(vx, capacity);
+		vy = Arrays.copyOf(vy, capacity);
+		radius = Arrays.copyOf(radius, capacity);
+		mass = Arrays.copyOf(mass, capacity);
+		type = Arrays.copyOf(type, capacity);
+	}
+
+	/**
+	 * Returns the type tag of the given space object.
+	 */
+	private static byte getType(SpaceObject spaceobject) {
+		if(spaceobject instanceof Ship) {return SHIP;}
+		if(spaceobject instanceof Bullet) {return BULLET;}
+		return ASTEROID;
+	}
+
+	/**
+	 * Returns the space object with the given entity id.
+	 */
+	public SpaceObject getObject(int id) {
+		return objects[id];
+	}
+
+	public double getX(int id) {
+		return x[id];
+	}
+
+	public double getY(int id) {
+		return y[id];
+	}
+
+	/**
+	 * Returns the time at which the space object with the given entity id was at its stored position.
+	 */
+	public double getTime(int id) {
+		return time[id];
+	}
+
+	public double getXVelocity(int id) {
+		return vx[id];
+	}
+
+	public double getYVelocity(int id) {
+		return vy[id];
+	}
+
+	public double getRadius(int id) {
+		return radius[id];
+	}
+
+	public double getMass(int id) {
+		return mass[id];
+	}
+
+	public byte getType(int id) {
+		return type[id];
+	}
+
+	/**
+	 * Stores the position of the space object with the given entity id at the given time.
+	 */
+	void setPosition(int id, double x, double y, double time) {
+		this.x[id] = x;
+		this.y[id] = y;
+		this.time[id] = time;
+	}
+
+	/**
+	 * Stores the velocity of the space object with the given entity id.
+	 */
+	void setVelocity(int id, double vx, double vy) {
+		this.vx[id] = vx;
+		this.vy[id] = vy;
+	}
+
+	/**
+	 * Brings the stored position of the space object with the given entity id up to the given time.
+	 * @param extrapolate
+	 * 		  True if the space object has to be moved along its velocity over the time that passed,
+	 * 		  false if its stored position is current and only its time has to be updated.
+	 */
+	void synchronize(int id, double now, boolean extrapolate) {
+		if(extrapolate && now != time[id]) {
+			double dt = now - time[id];
+			x[id] = x[id] + vx[id]*dt;
+			y[id] = y[id] + vy[id]*dt;
+		}
+		time[id] = now;
+	}
+
+	/**
+	 * Moves every space object in this store along its velocity during the given time dt.
+	 * @param dt
+	 * 		  The time the space objects are moved.
+	 * @param now
+	 * 		  The time at which the space objects are moved.
+	 */
+	void drift(double dt, double now) {
+		if(dt <= 0) {return;}
+		for(int id = 0; id < size; id++) {
+			x[id] = x[id] + vx[id]*dt;
+			y[id] = y[id] + vy[id]*dt;
+			time[id] = now;
+		}
+	}
+
+	/**
+	 * Returns the time left (in seconds) before the space objects with the given entity ids collide,
+	 * Double.POSITIVE_INFINITY if they never collide. Both stored positions have to be at the same time.
+	 * The computation is the one of SpaceObject.getTimeToCollision(SpaceObject) on the stored state.
+	 */
+	double getTimeToCollision(int first, int second) {
+
+		double deltaRx = x[second] - x[first];
+		double deltaRy = y[second] - y[first];
+		double deltaVx = vx[second] - vx[first];
+		double deltaVy = vy[second] - vy[first];
+		double sigma = radius[first] + radius[second];
+		double deltaVdeltaR = deltaVx*deltaRx + deltaVy*deltaRy;
+		double RSquared = deltaRx*deltaRx + deltaRy*deltaRy;
+		double VSquared = deltaVx*deltaVx + deltaVy*deltaVy;
+		double d = Math.pow(deltaVdeltaR, 2) - VSquared*(RSquared - Math.pow(sigma, 2));
+
+		if(deltaVdeltaR >= 0 || d < 0) {return Double.POSITIVE_INFINITY;}
+		return -(deltaVdeltaR + Math.sqrt(d))/(VSquared);
+	}
+
+	/**
+	 * Returns the time (in seconds) before the space object with the given entity id collides with a boundary
+	 * of a world with the given width and height.
+	 * The computation is the one of SpaceObject.getTimeToBoundaryCollision() on the stored state.
+	 */
+	double getTimeToBoundaryCollision(int id, double width, double height) {
+
+		double timeToBoundaryX;
+		double timeToBoundaryY;
+
+		if(Util.fuzzyLessThanOrEqualTo(vy[id], 0)) {timeToBoundaryY = Math.abs((y[id] - radius[id])/vy[id]);}
+		else {timeToBoundaryY = Math.abs((height - y[id] - radius[id])/vy[id]);}
+
+		if(Util.fuzzyLessThanOrEqualTo(vx[id], 0)) {timeToBoundaryX = Math.abs((x[id] - radius[id])/vx[id]);}
+		else {timeToBoundaryX = Math.abs((width - x[id] - radius[id])/vx[id]);}
+
+		return Math.min(timeToBoundaryX, timeToBoundaryY);
+	}
+
+	/**
+	 * The number of space objects in this store.
+	 */
+	private int size = 0;
+
+	/**
+	 * The space objects in this store, by entity id.
+	 */
+	private SpaceObject[] objects = new SpaceObject[INITIAL_CAPACITY];
+
+	/**
+	 * The state of the space objects in this store, by entity id.
+	 */
+	private double[] x = new double[INITIAL_CAPACITY];
+	private double[] y = new double[INITIAL_CAPACITY];
+	private double[] time = new double[INITIAL_CAPACITY];
+	private double[] vx = new double[INITIAL_CAPACITY];
+	private double[] vy = new double[INITIAL_CAPACITY];
+	private double[] radius = new double[INITIAL_CAPACITY];
+	private double[] mass = new double[INITIAL_CAPACITY];
+	private byte[] type = new byte[INITIAL_CAPACITY];
+
+	/**
+	 * The initial capacity of a store.
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+}
@@ -85,9 +85,9 @@ public class SpaceStation extends Ship {
 		Vector shipspeed = getVelocity().multiply(1.1);
 		ship.setVelocity(shipspeed);
 		ship.setAngle(this.getDirection());
-		double shipxpos = this.getPosition().getX()+this.getRadius()+ship.getRadius();
-		double shipypos = this.getPosition().getY();
-		ship.setPosition(new Vector(shipxpos, shipypos));
+		double shipxpos = this.getXPosition()+this.getRadius()+ship.getRadius();
+		double shipypos = this.getYPosition();
+		ship.setPosition(shipxpos, shipypos);
 		this.currentload = currentload - ship.getMass();
 		
 	}
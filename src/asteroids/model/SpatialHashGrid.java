@@ -0,0 +1,310 @@
+package asteroids.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A class of broad phases that hash the space objects into a uniform grid of square cells.
+ * Each space object is registered in every cell touched by the bounds it sweeps during the
+ * prediction horizon, so two space objects can only collide within that horizon if they share a cell.
+ * The cells are kept in an array and are never discarded once used, so registering a space object again
+ * doesn't allocate any memory.
+ *
+ * @invar The cell size of each grid must be valid.
+ * 		  | isValidCellSize(getCellSize())
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public class SpatialHashGrid implements BroadPhase {
+
+	/**
+	 * Creates a new grid covering a world with the given width and height.
+	 * If the grid would have more than MAX_GRID_CELLS cells, the cell size is increased until it hasn't.
+	 *
+	 * @param width
+	 * 		  The width of the covered world (in km).
+	 * @param height
+	 * 		  The height of the covered world (in km).
+	 * @param cellSize
+	 * 		  The width and height of a single cell (in km).
+	 * @param horizon
+	 * 		  The prediction horizon of the new grid (in seconds).
+	 *
+	 * @post | new.getCellSize() >= cellSize
+	 * @throws IllegalArgumentException
+	 * 		   If the cell size or the horizon isn't valid.
+	 * 		   | !isValidCellSize(cellSize) || !isValidCellSize(horizon)
+	 */
+	@SuppressWarnings("unchecked")
+	public SpatialHashGrid(double width, double height, double cellSize, double horizon) throws IllegalArgumentException {
+
+		if(!isValidCellSize(cellSize) || !isValidCellSize(horizon)) {throw new IllegalArgumentException();}
+		this.width = width;
+		this.height = height;
+		double minimum = Math.sqrt(Math.max(width, 0))*Math.sqrt(Math.max(height, 0))/Math.sqrt(MAX_GRID_CELLS);
+		while(cellSize < minimum || getNrOfCells(width, cellSize)*getNrOfCells(height, cellSize) > MAX_GRID_CELLS) {
+			cellSize = Math.max(2*cellSize, minimum);
+		}
+		this.cellSize = cellSize;
+		this.horizon = horizon;
+		this.columns = (int) getNrOfCells(width, cellSize);
+		this.rows = (int) getNrOfCells(height, cellSize);
+		this.cells = (List<SpaceObject>[]) new List<?>[columns*rows];
+	}
+
+	/**
+	 * Creates a new grid covering a world with the given width and height, with a default cell size and horizon.
+	 *
+	 * @effect | this(width, height, Math.max(width, height)/DEFAULT_RESOLUTION, DEFAULT_HORIZON)
+	 */
+	public SpatialHashGrid(double width, double height) {
+		this(width, height, Math.max(width, height)/DEFAULT_RESOLUTION, DEFAULT_HORIZON);
+	}
+
+	/**
+	 * The default number of cells along the longest side of the world.
+	 */
+	public static final double DEFAULT_RESOLUTION = 64;
+
+	/**
+	 * The default prediction horizon (in seconds).
+	 */
+	public static final double DEFAULT_HORIZON = 0.5;
+
+	/**
+	 * The maximum number of cells a space object can be registered in. Space objects sweeping
+	 * more cells are kept apart and considered a candidate for every other space object.
+	 */
+	private static final int MAX_CELLS = 256;
+
+	/**
+	 * The maximum number of cells in a grid.
+	 */
+	public static final int MAX_GRID_CELLS = 1 << 20;
+
+	/**
+	 * @return The width and height of a single cell (in km).
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * Checks whether the given size is a valid cell size.
+	 * @param cellSize
+	 * @return True if the size is a finite number greater than zero.
+	 */
+	private static boolean isValidCellSize(double cellSize) {
+		return cellSize > 0 && cellSize < Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns the number of cells with the given size needed to cover the given length, the ends included.
+	 */
+	private static double getNrOfCells(double length, double cellSize) {
+		return Math.floor(Math.max(length, 0)/cellSize) + 1;
+	}
+
+	/**
+	 * The width and height of a single cell.
+	 */
+	private final double cellSize;
+
+	/**
+	 * The width of the covered world.
+	 */
+	private final double width;
+
+	/**
+	 * The height of the covered world.
+	 */
+	private final double height;
+
+	/**
+	 * The number of columns and rows of cells in this grid.
+	 */
+	private final int columns;
+	private final int rows;
+
+	@Override
+	public double getPredictionHorizon() {
+		return horizon;
+	}
+
+	/**
+	 * The prediction horizon of this grid.
+	 */
+	private final double horizon;
+
+	/**
+	 * Registers the space object in all the cells touched by the bounds it sweeps during the given horizon.
+	 * The bounds are clipped to the world, a space object never leaves it without colliding with a boundary first.
+	 */
+	@Override
+	public void update(SpaceObject spaceobject, double horizon) {
+
+		int[] range = ranges.get(spaceobject);
+		if(range != null) {removeFromCells(spaceobject, range);}
+
+		double radius = spaceobject.getRadius();
+		double x = spaceobject.getXPosition();
+		double y = spaceobject.getYPosition();
+		double dx = spaceobject.getXVelocity()*horizon;
+		double dy = spaceobject.getYVelocity()*horizon;
+
+		int minX = getCell(Math.min(x, x+dx) - radius, width, columns);
+		int maxX = getCell(Math.max(x, x+dx) + radius, width, columns);
+		int minY = getCell(Math.min(y, y+dy) - radius, height, rows);
+		int maxY = getCell(Math.max(y, y+dy) + radius, height, rows);
+
+		if((long)(maxX-minX+1)*(maxY-minY+1) > MAX_CELLS) {
+			if(range != null) {ranges.remove(spaceobject);}
+			largeObjects.add(spaceobject);
+			return;
+		}
+
+		largeObjects.remove(spaceobject);
+		if(range == null) {
+			range = new int[4];
+			ranges.put(spaceobject, range);
+		}
+		range[0] = minX;
+		range[1] = minY;
+		range[2] = maxX;
+		range[3] = maxY;
+		for(int i = minX; i <= maxX; i++) {
+			for(int j = minY; j <= maxY; j++) {
+				int index = getIndex(i, j);
+				List<SpaceObject> cell = cells[index];
+				if(cell == null) {
+					cell = new ArrayList<SpaceObject>();
+					cells[index] = cell;
+				}
+				cell.add(spaceobject);
+			}
+		}
+	}
+
+	@Override
+	public void remove(SpaceObject spaceobject) {
+
+		if(largeObjects.remove(spaceobject)) {return;}
+		int[] range = ranges.remove(spaceobject);
+		if(range != null) {removeFromCells(spaceobject, range);}
+	}
+
+	/**
+	 * Removes the given space object from all the cells in the given range.
+	 */
+	private void removeFromCells(SpaceObject spaceobject, int[] range) {
+
+		for(int i = range[0]; i <= range[2]; i++) {
+			for(int j = range[1]; j <= range[3]; j++) {
+				cells[getIndex(i, j)].remove(spaceobject);
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		for(List<SpaceObject> cell : cells) {
+			if(cell != null) {cell.clear();}
+		}
+		ranges.clear();
+		largeObjects.clear();
+	}
+
+	/**
+	 * @return The space objects sharing a cell with the given space object, together with the space objects
+	 * 		   sweeping too many cells. If the given space object itself sweeps too many cells, all the
+	 * 		   registered space objects are returned. The returned set is reused by the next call.
+	 */
+	@Override
+	public Collection<SpaceObject> getCandidates(SpaceObject spaceobject) {
+
+		Set<SpaceObject> candidates = this.candidates;
+		candidates.clear();
+		candidates.addAll(largeObjects);
+		if(largeObjects.contains(spaceobject)) {
+			candidates.addAll(ranges.keySet());
+			return candidates;
+		}
+		int[] range = ranges.get(spaceobject);
+		if(range == null) {return candidates;}
+		addCandidates(candidates, range[0], range[1], range[2], range[3]);
+		return candidates;
+	}
+
+	/**
+	 * @return The space objects registered in the cells touched by the bounds of the given circle,
+	 * 		   together with the space objects sweeping too many cells.
+	 */
+	@Override
+	public Collection<SpaceObject> getCandidates(Vector position, double radius) {
+
+		Set<SpaceObject> candidates = new HashSet<SpaceObject>(largeObjects);
+		addCandidates(candidates, getCell(position.getX() - radius, width, columns), getCell(position.getY() - radius, height, rows),
+				getCell(position.getX() + radius, width, columns), getCell(position.getY() + radius, height, rows));
+		return candidates;
+	}
+
+	/**
+	 * Adds the space objects registered in the given range of cells to the given candidates.
+	 */
+	private void addCandidates(Set<SpaceObject> candidates, int minX, int minY, int maxX, int maxY) {
+
+		for(int i = minX; i <= maxX; i++) {
+			for(int j = minY; j <= maxY; j++) {
+				List<SpaceObject> cell = cells[getIndex(i, j)];
+				if(cell != null) {candidates.addAll(cell);}
+			}
+		}
+	}
+
+	/**
+	 * Returns the index of the cell containing the given coordinate, clipped to the world.
+	 * @param coordinate
+	 * @param bound
+	 * 		  The width (height) of the world.
+	 * @param count
+	 * 		  The number of columns (rows) of this grid.
+	 */
+	private int getCell(double coordinate, double bound, int count) {
+		double clipped = Math.max(0, Math.min(coordinate, bound));
+		return (int) Math.min(Math.floor(clipped/cellSize), count - 1);
+	}
+
+	/**
+	 * @return The index in the cells array of the cell with the given column and row.
+	 */
+	private int getIndex(int column, int row) {
+		return column*rows + row;
+	}
+
+	/**
+	 * The cells of this grid, column by column. A cell is created the first time a space object is registered in it.
+	 */
+	private final List<SpaceObject>[] cells;
+
+	/**
+	 * The range of cells (first column, first row, last column, last row) every registered space object is in.
+	 */
+	private final Map<SpaceObject, int[]> ranges = new HashMap<SpaceObject, int[]>();
+
+	/**
+	 * The set of candidates returned by getCandidates(SpaceObject), reused between calls.
+	 */
+	private final Set<SpaceObject> candidates = new HashSet<SpaceObject>();
+
+	/**
+	 * The registered space objects that sweep too many cells.
+	 */
+	private final Set<SpaceObject> largeObjects = new HashSet<SpaceObject>();
+
+}
@@ -168,7 +168,7 @@ public class Vector {
 	{
 		if (secondVector == null)
 			return this;
-		return this.add(  new Vector(  -secondVector.getX(), -secondVector.getY()  )  );
+		return new Vector(this.getX() - secondVector.getX(), this.getY() - secondVector.getY());
 	}
 
 	/**
@@ -36,6 +36,11 @@ public class World {
 	 * 
 	 * @post The new height of this new world is equal to the given height.
 	 * 				| new this.getWorldHeigt().equals(height)
+	 * @post A world without an area checks every pair of space objects, a spatial hash grid needs cells of a positive size.
+	 * 				| if(width == 0 || height == 0) then new.getBroadPhase() instanceof BruteForceBroadPhase
+	 * @throws IllegalArgumentException
+	 * 				The width or the height is not a valid coordinate.
+	 * 				| !isValidCoordinate(width) || !isValidCoordinate(height)
 	 */
 	
 	@Raw
@@ -43,7 +48,8 @@ public class World {
 		
 		setWidth(width);
 		setHeight(height);
-		this.Objects = new HashSet<SpaceObject>();
+		if(width > 0 && height > 0) {this.broadPhase = new SpatialHashGrid(width, height);}
+		else {this.broadPhase = new BruteForceBroadPhase();}
 		
 	}
 
@@ -75,9 +81,12 @@ public class World {
 		else {height = newHeight;}
 	}
 	
+	/**
+	 * Checks whether the given coordinate is a valid width or height of a world: a number that is not negative and finite.
+	 */
 	private boolean isValidCoordinate(double coordinate) {
 		
-		if(Double.isNaN(coordinate) || !Util.fuzzyLessThanOrEqualTo(coordinate, Double.MAX_VALUE)) return false;
+		if(Double.isNaN(coordinate) || coordinate < 0 || !Util.fuzzyLessThanOrEqualTo(coordinate, Double.MAX_VALUE)) return false;
 		else return true;
 	}
 	
@@ -93,78 +102,97 @@ public class World {
 	
 	/**
 	 * Returns a set collecting all the ships in this world.
+	 * The set is a read-only view that reflects later changes to this world, it may not be iterated
+	 * while ships are added to or removed from this world.
 	 * 
 	 * @return Each ship in this set is attached to this world, and vice versa.
 	 */
 	@Basic
 	public Set<Ship> getShips() {
-		
-		Set<Ship> Ships = new HashSet<Ship>();
-		for(SpaceObject spaceObject: Objects)
-			if(Ship.class.isInstance(spaceObject))
-				Ships.add((Ship)spaceObject);
-		return Ships;
+		return ShipsView;
 	}
 	
 	/**
 	 * Returns a set collecting all the asteroids in this world.
+	 * The set is a read-only view that reflects later changes to this world, it may not be iterated
+	 * while asteroids are added to or removed from this world.
 	 * 
 	 * @return Each asteroid in this set is attached to this world, and vice versa.
 	 */
 	@Basic
 	public Set<Asteroid> getAsteroids() {
-		
-		Set<Asteroid> Asteroids = new HashSet<Asteroid>();
-		for(SpaceObject spaceObject: Objects)
-			if(Asteroid.class.isInstance(spaceObject))
-				Asteroids.add((Asteroid)spaceObject);
-		return Asteroids;
+		return AsteroidsView;
 	}
 	
 	/**
 	 * Returns a set collecting all the bullets in this world.
+	 * The set is a read-only view that reflects later changes to this world, it may not be iterated
+	 * while bullets are added to or removed from this world.
 	 * 
 	 * @return Each bullet in this set is attached to this world, and vice versa.
 	 */
 	@Basic
 	public Set<Bullet> getBullets() {
-		
-		Set<Bullet> Bullets = new HashSet<Bullet>();
-		for (SpaceObject spaceObject: Objects)
-			if(Bullet.class.isInstance(spaceObject))
-				Bullets.add((Bullet)spaceObject);
-		return Bullets;
-			
+		return BulletsView;
 	}
 	
 	/**
 	 * Returns a set collecting all the space objects in this world.
+	 * The set is a read-only view that reflects later changes to this world, it may not be iterated
+	 * while space objects are added to or removed from this world.
 	 * 
 	 * @return Each space object in this set is attached to this world, and vice versa.
 	 */
 	@Basic
 	public Set<SpaceObject> getObjects() {
-		return Objects;
+		return ObjectsView;
 	}
 	
 	/**
 	 * Returns the number of bullets this ship has fired in this world.
+	 * The bullets of every ship are counted as they are added to and removed from this world.
 	 * @param ship
 	 * 		  The ship firing the bullets.
-	 * @return amount of bullets fired by this ship.
+	 * @return amount of bullets in this world fired by this ship, whatever the world the ship is in now.
+	 * 		  | result == card({bullet in getBullets() | bullet.getSource() == ship})
 	 */
 
 	public int getNrOfBulletsFrom(Ship ship) {
 		
-		int bullets = 0;
-		for (SpaceObject spaceobject: Objects) {
-			if (spaceobject instanceof Bullet && ((Bullet) spaceobject).getSource() == ship) 
-			{
-				bullets++;
-			}		
-			}
-
-		return bullets;
+		Integer bullets = bulletCounts.get(ship);
+		return bullets == null ? 0 : bullets;
+	}
+	
+	/**
+	 * Changes the number of bullets in this world fired by the given ship by the given amount.
+	 */
+	private void changeNrOfBulletsFrom(Ship ship, int amount) {
+		
+		int bullets = getNrOfBulletsFrom(ship) + amount;
+		if(bullets == 0) {bulletCounts.remove(ship);}
+		else {bulletCounts.put(ship, bullets);}
+	}
+	
+	/**
+	 * The number of bullets in this world fired by each ship, only for the ships with bullets in this world.
+	 */
+	private final Map<Ship, Integer> bulletCounts = new HashMap<Ship, Integer>();
+	
+	/**
+	 * Returns the space objects in this world that might overlap the given space object now.
+	 * The result holds the candidates of the broad phase at the current position of the space object,
+	 * together with the space objects that are not registered in the broad phase yet.
+	 * If the registrations in the broad phase have expired, all the space objects in this world are returned.
+	 * @param spaceobject
+	 * 		  The space object to find the neighbours of.
+	 * @return A set containing at least every space object in this world overlapping the given one.
+	 */
+	Set<SpaceObject> getObjectsNear(SpaceObject spaceobject)
+	{
+		if(horizonEnd < getTime()) {return getObjects();}
+		Set<SpaceObject> neighbours = new HashSet<SpaceObject>(modifiedObjects);
+		neighbours.addAll(broadPhase.getCandidates(spaceobject.getPosition(), spaceobject.getRadius()));
+		return neighbours;
 	}
 	
 	/**
@@ -188,6 +216,13 @@ public class World {
 		assert (object.getWorld() == this) && (object.fitsInWorld(this)) && (object !=null) && (containsSpaceObject(object) == false);
 		object.setWorld(this);
 		Objects.add(object);
+		if(object instanceof Ship) {
+			Ships.add((Ship) object);
+			scheduler.add((Ship) object, getTime());
+		}
+		else if(object instanceof Asteroid) {Asteroids.add((Asteroid) object);}
+		else if(object instanceof Bullet && Bullets.add((Bullet) object)) {changeNrOfBulletsFrom(((Bullet) object).getSource(), 1);}
+		if(store != null) {object.attachStore(store);}
 		addModifiedSpaceObject(object);
 		
 	}
@@ -201,56 +236,159 @@ public class World {
 		
 		if(object == null) {throw new NullPointerException();}
 		Objects.remove(object);
+		if(Ships.remove(object)) {scheduler.remove((Ship) object);}
+		Asteroids.remove(object);
+		if(Bullets.remove(object)) {changeNrOfBulletsFrom(((Bullet) object).getSource(), -1);}
 		modifiedObjects.remove(object);
+		if(object.getWorld() == this) {object.detachStore();}
 		object.removeWorld();
+		object.incrementEventCount();
 		removeCollisions(object);
+		broadPhase.remove(object);
 	}
 	
 	/**
 	 * A collection of all the space objects in the world.
 	 */
-	private Set<SpaceObject> Objects = new HashSet<SpaceObject>();
+	private final Set<SpaceObject> Objects = new HashSet<SpaceObject>();
+	
+	/**
+	 * The ships in the world, kept up to date by addObject and removeObject.
+	 */
+	private final Set<Ship> Ships = new HashSet<Ship>();
+	
+	/**
+	 * The asteroids in the world, kept up to date by addObject and removeObject.
+	 */
+	private final Set<Asteroid> Asteroids = new HashSet<Asteroid>();
+	
+	/**
+	 * The bullets in the world, kept up to date by addObject and removeObject.
+	 */
+	private final Set<Bullet> Bullets = new HashSet<Bullet>();
+	
+	/**
+	 * Read-only views on the collections of space objects in the world.
+	 */
+	private final Set<SpaceObject> ObjectsView = Collections.unmodifiableSet(Objects);
+	private final Set<Ship> ShipsView = Collections.unmodifiableSet(Ships);
+	private final Set<Asteroid> AsteroidsView = Collections.unmodifiableSet(Asteroids);
+	private final Set<Bullet> BulletsView = Collections.unmodifiableSet(Bullets);
 	
 	/**
 	 * A simple method to move all the space objects in this world during a given time dt.
-	 * If the space object is a ship, it will also start executing programs if it has any.
+	 * The clock of this world is advanced by dt. If this world is event driven, the space objects
+	 * are not moved one by one, their positions follow from the clock whenever they are needed.
+	 * The space objects move along their current velocity, then the ships with an active thruster thrust during dt.
+	 * The ships whose programs are due by the new time execute them, as scheduled by the program scheduler.
 	 * @param dt
 	 * 		  The time the objects are moved.	  
 	 */
 	public void moveAllSpaceObjects(double dt)
 	{
-		Set<SpaceObject> asteroidAndBullet = new HashSet<SpaceObject>();
-		asteroidAndBullet.addAll(getAsteroids());
-		asteroidAndBullet.addAll(getBullets());
-		
-		for(SpaceObject object : asteroidAndBullet) {
-			object.move(dt);
+		if(!isEventDriven()) {
+			if(store != null) {store.drift(dt, getTime());}
+			else {
+				for(SpaceObject object : getObjects()) {
+					object.drift(dt);
+				}
+			}
 		}
 		
-		this.programtime = this.programtime + dt;
-		if (this.programtime >= 0.2) {
-			nrOfRuns = (int) Math.floor(this.programtime / 0.2);
-			this.programtime = this.programtime - nrOfRuns*0.2; 
-		}
+		if(dt > 0) {this.time = this.time + dt;}
+		thrustAllShips(dt);
 		
-		for (Ship ship : getShips()) {
-			
-			ship.move(dt);
-			addModifiedSpaceObject(ship);
-			ship.execute(nrOfRuns);
+		scheduler.advance(getTime());
+	}
+	
+	/**
+	 * Checks whether this world is event driven.
+	 * In an event driven world a space object stores its position at a certain time together with its velocity,
+	 * and its current position is only computed when it is needed: when it is involved in a collision, when its
+	 * velocity changes or when it is queried. Otherwise every space object is moved each time the clock advances.
+	 */
+	@Basic
+	public boolean isEventDriven() {
+		return eventDriven;
+	}
+	
+	/**
+	 * Sets whether this world is event driven.
+	 * @param eventDriven
+	 * 		  True if this world has to be event driven.
+	 * @post | new.isEventDriven() == eventDriven
+	 * @effect The positions of all the space objects in this world are brought up to the current clock.
+	 */
+	public void setEventDriven(boolean eventDriven) {
+		for(SpaceObject spaceobject : Objects) {
+			spaceobject.synchronizePosition();
+		}
+		this.eventDriven = eventDriven;
+	}
+	
+	/**
+	 * Indicates whether this world is event driven.
+	 */
+	private boolean eventDriven = true;
+
+	/**
+	 * Checks whether the space objects in this world keep their position and velocity in a space object store.
+	 * A store holds the state of all space objects in parallel arrays, the space objects themselves are only handles
+	 * onto it. The world then moves the space objects and predicts their collisions in loops over those arrays.
+	 */
+	public boolean isStoreBacked() {
+		return store != null;
+	}
+
+	/**
+	 * Sets whether the space objects in this world keep their position and velocity in a space object store.
+	 * @param storeBacked
+	 * 		  True if this world has to use a store.
+	 * @post | new.isStoreBacked() == storeBacked
+	 * @effect The position and velocity of every space object in this world are moved into a new store,
+	 * 		   or back into the space objects.
+	 */
+	public void setStoreBacked(boolean storeBacked) {
+		if(storeBacked == isStoreBacked()) {return;}
+		if(storeBacked) {
+			this.store = new SpaceObjectStore();
+			for(SpaceObject spaceobject : Objects) {
+				spaceobject.attachStore(store);
+			}
+		}
+		else {
+			for(SpaceObject spaceobject : Objects) {
+				spaceobject.detachStore();
 			}
+			this.store = null;
+		}
 	}
-		
+
+	/**
+	 * Returns the store holding the state of the space objects in this world, null if this world isn't store backed.
+	 */
+	@Basic
+	public SpaceObjectStore getSpaceObjectStore() {
+		return store;
+	}
+
+	/**
+	 * The store holding the state of the space objects in this world, null if the space objects hold their own state.
+	 */
+	private SpaceObjectStore store = null;
+
 	
 	/**
-	 * A sort of remainder of time from the previous round of executions.
+	 * Returns the scheduler executing the programs of the ships in this world.
 	 */
-	private double programtime = 0;
+	public ProgramScheduler getScheduler() {
+		return scheduler;
+	}
 	
 	/**
-	 * Number of times a ship has to run a certain program.
+	 * The scheduler executing the programs of the ships in this world, every ship at its own period and phase.
 	 */
-	private int nrOfRuns = 0;
+	private final ProgramScheduler scheduler = new ProgramScheduler(this);
 	
 	
 	
@@ -283,11 +421,15 @@ public class World {
 	 *          a world.
 	 *        | for each space object in getObjects():
 	 *        |	  (! (new space object).hasSpaceObject())
+	 * @effect  The position and velocity of every space object of this world are moved out of its store.
+	 *        | setStoreBacked(false)
 	 */
 	public void terminate(){
 		if (!isTerminated()) {
+			setStoreBacked(false);
 			for (SpaceObject spaceObject : this.getObjects())
 				spaceObject.removeWorld();
+			bulletCounts.clear();
 			this.isTerminated = true;
 		}
 	}
@@ -300,9 +442,9 @@ public class World {
 	
 	
 	/**
-	 * An arraylist which holds collision objects.
+	 * A queue which holds collision objects, the first collision at its head.
 	 */
-	private final ArrayList<Collision> Collisions = new ArrayList<Collision>();
+	private final CollisionQueue Collisions = new CollisionQueue();
 	
 	/**
 	 * A set which holds all the modified objects.
@@ -321,6 +463,8 @@ public class World {
 		
 		if(!isValidEvolveArgument(dt)) {throw new IllegalArgumentException();}
 		
+		if(horizonEnd < getTime() + dt) {resetPredictions(dt);}
+		
 		double timeToFirstCollision;
 		
 		while(true)
@@ -328,30 +472,65 @@ public class World {
 			timeToFirstCollision=Double.POSITIVE_INFINITY;
 			
 			prepareCollisions();
-			if(!Collisions.isEmpty()) {timeToFirstCollision = Collisions.get(0).getCollisionTime();}
+			discardStaleCollisions();
+			if(!Collisions.isEmpty()) {timeToFirstCollision = Collisions.peek().getCollisionTime();}
 			if(timeToFirstCollision > dt) {break;}
 			moveAllSpaceObjects(timeToFirstCollision);
-			changeCollisionsTime(timeToFirstCollision);
 			if(timeToFirstCollision == Double.POSITIVE_INFINITY) {break;}
 			else {
-				this.Collisions.get(0).resolve();
+				Collision first = this.Collisions.peek();
+				removeCollision(first);
+				first.resolve();
+				nrOfResolvedCollisions++;
 			}
 			dt = dt - timeToFirstCollision;
 		}
 		moveAllSpaceObjects(dt);
-		changeCollisionsTime(dt);
 	}
+	
+	/**
+	 * Lets every ship in this world thrust during a given time dt.
+	 * Only ships with an active thruster change their velocity and are marked as modified, the collisions
+	 * predicted for coasting ships stay in place. Ships thrust after every move, so at every collision
+	 * within an evolve step.
+	 * @param dt
+	 * 		  The time the ships thrust.
+	 */
+	private void thrustAllShips(double dt)
+	{
+		if(dt <= 0 || Ships.isEmpty()) {return;}
+		for (Ship ship : Ships) {
+			ship.thrust(dt);
+		}
+	}
+	
+	/**
+	 * Returns the current time on the clock of this world, the total time (in seconds) this world has evolved.
+	 * The clock only moves forward. Collisions are stored with the time on this clock at which they take place.
+	 */
+	@Basic
+	public double getTime() {
+		return time;
+	}
+	
+	/**
+	 * The current time on the clock of this world.
+	 */
+	private double time = 0;
 			
 	/**
 	 * Prepares the collisions before evolving.		
 	 */
 	private void prepareCollisions()
 	{
+		if(modifiedObjects.isEmpty()) {return;}
 		for (SpaceObject spaceobject : modifiedObjects) {
-			removeCollisions(spaceobject);
+			if(getInvalidation() == Invalidation.EAGER) {removeCollisions(spaceobject);}
+			else {spaceobject.incrementEventCount();}
+			broadPhase.update(spaceobject, horizonEnd - getTime());
 		}
 		for (SpaceObject spaceobject1 : modifiedObjects) {
-			for (SpaceObject spaceobject2 : Objects) {
+			for (SpaceObject spaceobject2 : broadPhase.getCandidates(spaceobject1)) {
 				if (! spaceobject1.equals(spaceobject2) ) {
 					double collisiontime = spaceobject1.getTimeToCollision(spaceobject2);
 					if (collisiontime != Double.POSITIVE_INFINITY) {
@@ -368,19 +547,166 @@ public class World {
 	}
 	
 	/**
-	 * Removes collisions from the Collisions arraylist.
+	 * Removes the stale collisions from the head of the Collisions queue, until the first collision is valid.
+	 * With eager invalidation there are no stale collisions in the queue.
+	 */
+	private void discardStaleCollisions()
+	{
+		while(!Collisions.isEmpty() && Collisions.peek().isStale()) {
+			removeCollision(Collisions.peek());
+			nrOfStaleCollisions++;
+		}
+	}
+	
+	/**
+	 * Enumeration of the strategies to invalidate the predicted collisions of a space object whose motion changed.
+	 * EAGER removes those collisions from the queue right away.
+	 * VERSIONED leaves them in the queue and discards them once they reach its head, by comparing the
+	 * event counts of the space objects with the counts the collision was predicted with.
+	 */
+	public static enum Invalidation {
+		EAGER,VERSIONED;
+	}
+	
+	/**
+	 * Returns the strategy used to invalidate predicted collisions.
+	 */
+	@Basic
+	public Invalidation getInvalidation() {
+		return invalidation;
+	}
+	
+	/**
+	 * Sets the strategy used to invalidate predicted collisions.
+	 * All collisions are predicted again the next time this world evolves.
+	 * @param invalidation
+	 * 		  The new strategy.
+	 * @post | new.getInvalidation() == invalidation
+	 * @throws NullPointerException
+	 * 		   The given strategy is null.
+	 */
+	public void setInvalidation(Invalidation invalidation)
+	{
+		if(invalidation == null) {throw new NullPointerException();}
+		this.invalidation = invalidation;
+		this.horizonEnd = Double.NEGATIVE_INFINITY;
+	}
+	
+	/**
+	 * The strategy used to invalidate predicted collisions.
+	 */
+	private Invalidation invalidation = Invalidation.EAGER;
+	
+	/**
+	 * Returns the number of collisions this world has resolved.
+	 */
+	public long getNrOfResolvedCollisions() {
+		return nrOfResolvedCollisions;
+	}
+	
+	/**
+	 * Returns the number of stale collisions this world has discarded from the head of its queue.
+	 * Divided by the number of resolved collisions, this gives the stale-pop rate of the versioned invalidation.
+	 */
+	public long getNrOfStaleCollisions() {
+		return nrOfStaleCollisions;
+	}
+	
+	/**
+	 * Returns the number of predicted collisions currently in the queue, stale ones included.
+	 */
+	public int getNrOfPredictedCollisions() {
+		return Collisions.size();
+	}
+	
+	/**
+	 * The number of collisions this world has resolved.
+	 */
+	private long nrOfResolvedCollisions = 0;
+	
+	/**
+	 * The number of stale collisions this world has discarded.
+	 */
+	private long nrOfStaleCollisions = 0;
+	
+	/**
+	 * Drops all the predicted collisions and marks every space object in this world as modified,
+	 * so all collisions are predicted again over a new horizon of at least the given time.
+	 * @param dt
+	 * 		  The time the new horizon has to cover.
+	 */
+	private void resetPredictions(double dt)
+	{
+		Collisions.clear();
+		for(SpaceObject spaceobject : Objects) {
+			spaceobject.getCollisions().clear();
+		}
+		modifiedObjects.addAll(Objects);
+		horizonEnd = getTime() + Math.max(broadPhase.getPredictionHorizon(), dt);
+	}
+	
+	/**
+	 * Returns the broad phase used to find the candidates for a collision.
+	 */
+	@Basic
+	public BroadPhase getBroadPhase() {
+		return broadPhase;
+	}
+	
+	/**
+	 * Sets the broad phase used to find the candidates for a collision.
+	 * All collisions are predicted again the next time this world evolves.
+	 * A BruteForceBroadPhase checks every pair of space objects and can be used as a reference.
+	 * 
+	 * @param broadPhase
+	 * 		  The new broad phase of this world.
+	 * @post The given broad phase is the new broad phase of this world.
+	 * 		 | new.getBroadPhase() == broadPhase
+	 * @throws NullPointerException
+	 * 		   The given broad phase is null.
+	 */
+	public void setBroadPhase(BroadPhase broadPhase)
+	{
+		if(broadPhase == null) {throw new NullPointerException();}
+		this.broadPhase = broadPhase;
+		this.horizonEnd = Double.NEGATIVE_INFINITY;
+	}
+	
+	/**
+	 * The broad phase of the collision detection in this world.
+	 */
+	private BroadPhase broadPhase;
+	
+	/**
+	 * The time on the clock of this world at which the predictions of the broad phase expire.
+	 */
+	private double horizonEnd = Double.NEGATIVE_INFINITY;
+	
+	/**
+	 * Removes the collisions of a space object from the Collisions queue.
+	 * Only the collisions referencing the space object are touched.
 	 * @param spaceobject
 	 */
 	private void removeCollisions(SpaceObject spaceobject)
 	{
-		for(int i = 0; i<Collisions.size();i++) {
-				if (Collisions.get(i).attachedSpaceObject(spaceobject)) {
-					this.Collisions.remove(i);
-					i--;}
-					
+		Set<Collision> collisions = spaceobject.getCollisions();
+		while(!collisions.isEmpty()) {
+			removeCollision(collisions.iterator().next());
 		}
 	}
 	
+	/**
+	 * Removes a collision from the Collisions queue and from the collisions of the space objects involved.
+	 * @param collision
+	 */
+	private void removeCollision(Collision collision)
+	{
+		Collisions.remove(collision);
+		collision.getSpaceObject1().removeCollision(collision);
+		if(collision.getSpaceObject2() != null) {
+			collision.getSpaceObject2().removeCollision(collision);}
+	}
+	
 	/**
 	 * Adds a space object to the set of modified space objects.
 	 * @param spaceobject
@@ -392,54 +718,17 @@ public class World {
 	}
 	
 	/**
-	 * Adds a collision to the arraylist of collisions.
+	 * Adds a collision to the queue of collisions and to the collisions of the space objects involved.
 	 * @param collision
 	 */
 	private void addCollision(Collision collision) 
 	{
-		if(Collisions.isEmpty()) {Collisions.add(0, collision);}
-		else
-		{
-			for(int i=0; i<Collisions.size(); i++)
-			{
-				if(Collisions.get(i).getCollisionTime() > collision.getCollisionTime())
-				{
-					Collisions.add(i, collision);
-					i = Collisions.size();
-				}
-				if(i== Collisions.size()-1)
-					{
-					Collisions.add(collision);
-					i = Collisions.size();
-					}
-
-
-			}
-		}
+		Collisions.add(collision);
+		if(getInvalidation() == Invalidation.VERSIONED) {return;}
+		collision.getSpaceObject1().addCollision(collision);
+		if(collision.getSpaceObject2() != null) {
+			collision.getSpaceObject2().addCollision(collision);}
 	}
 		
-	/**
-	 * Changes the collision time by using the method evolve in the class Collision.
-	 * @param dt
-	 */
-		private void changeCollisionsTime(double dt) 
-		{
-			for(Collision collision: Collisions)
-			{
-				collision.evolve(dt);
-			}
-		}
-	
-			
-			
-			
-			
-			
-			
-		
-		
-		
-				
 
-		
-	}
+}
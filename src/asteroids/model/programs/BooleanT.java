@@ -21,6 +21,16 @@ public class BooleanT extends Type {
 		}
 		
 		private boolean value = false;
+		
+		@Override
+		public Kind getKind() {
+			return Kind.BOOLEAN;
+		}
+		
+		@Override
+		public BooleanT copy() {
+			return new BooleanT(value);
+		}
 
 }
 
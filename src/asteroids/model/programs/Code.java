@@ -1,7 +1,12 @@
 package asteroids.model.programs;
 import asteroids.model.Program;
+import asteroids.model.programs.Expression.Expression;
 
-public class Code {
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class Code implements Cloneable {
 	
 	protected Code(int line,int column, Program program){
 		
@@ -34,6 +39,103 @@ public class Code {
 		this.column = column;
 	}
 
+	/**
+	 * Returns the code directly contained in this code, in the order it is executed.
+	 */
+	public List<Code> getChildren() {
+		return Collections.emptyList();
+	}
+	
+	/**
+	 * Returns a list of the given pieces of code, without the ones that are null.
+	 */
+	protected static List<Code> asChildren(Code... codes) {
+		List<Code> children = new ArrayList<Code>(codes.length);
+		for(Code code : codes) {
+			if(code != null) {children.add(code);}
+		}
+		return children;
+	}
+	
+	/**
+	 * Returns a copy of this code, containing copies of the code contained in this code.
+	 * Resolving, type checking or optimizing the copy leaves this code as it is. The copy belongs to the same program.
+	 */
+	public Code copy() {
+		try {
+			Code copy = (Code) clone();
+			copy.copyChildren();
+			return copy;
+		}
+		catch(CloneNotSupportedException e) {throw new AssertionError(e);}
+	}
+	
+	/**
+	 * Replaces the code directly contained in this code, which is a new clone, by copies of it.
+	 */
+	protected void copyChildren() {
+	}
+	
+	/**
+	 * Returns a copy of the given code, null if it is null.
+	 */
+	@SuppressWarnings("unchecked")
+	protected static <C extends Code> C copyOf(C code) {
+		return code == null ? null : (C) code.copy();
+	}
+	
+	/**
+	 * Returns the number of nodes in this code: this code and all code contained in it.
+	 */
+	public int getNrOfNodes() {
+		int nodes = 1;
+		for(Code child : getChildren()) {nodes += child.getNrOfNodes();}
+		return nodes;
+	}
+	
+	/**
+	 * Resolves the variables in this code to the slots of their values in the program.
+	 */
+	public void resolve(ProgramCode code) {
+		for(Code child : getChildren()) {child.resolve(code);}
+	}
+
+	/**
+	 * Checks the types in this code, and specializes this code to the types it finds.
+	 * @throws IllegalArgumentException
+	 * 		   This code, or code in it, isn't well typed. The message tells where and why.
+	 */
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+	}
+	
+	/**
+	 * Checks the types in the code directly contained in this code.
+	 * @throws IllegalArgumentException
+	 * 		   Code in this code isn't well typed.
+	 */
+	protected void typeCheckChildren(ProgramCode code) throws IllegalArgumentException {
+		for(Code child : getChildren()) {child.typeCheck(code);}
+	}
+	
+	/**
+	 * Checks whether the given expression is of the given kind.
+	 * @throws IllegalArgumentException
+	 * 		   The expression doesn't exist, because the parser doesn't support it, or it is of another kind.
+	 */
+	protected void checkKind(Expression expression, Type.Kind kind) throws IllegalArgumentException {
+		if(expression == null) {throw typeError("unsupported expression");}
+		Type.Kind found = expression.getKind();
+		if(found != kind) {throw expression.typeError("expected a value of type " + kind + " but found " + found);}
+	}
+	
+	/**
+	 * Returns an exception reporting the given type error at the position of this code.
+	 */
+	protected IllegalArgumentException typeError(String message) {
+		return new IllegalArgumentException("line " + getLine() + ", column " + getColumn() + ": " + message);
+	}
+
 	protected Program program;
 	protected int line;
 	protected int column;
@@ -0,0 +1,101 @@
+package asteroids.model.programs;
+
+import java.util.Arrays;
+
+import asteroids.model.Ship;
+
+/**
+ * A class of buffers of the actions a program commands its ship to take.
+ * While the programs of the ships in a world execute, possibly in parallel, the world doesn't change: every
+ * program records its actions in the buffer of its ship instead, and the world applies the buffers one ship
+ * after the other once all programs executed.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public final class CommandBuffer {
+
+	/**
+	 * Records that the ship turns over the given angle.
+	 */
+	public void turn(double angle) {
+		add(TURN, angle);
+	}
+
+	/**
+	 * Records that the ship fires a bullet.
+	 */
+	public void fire() {
+		add(FIRE, 0);
+	}
+
+	/**
+	 * Records that the ship turns its thruster on or off.
+	 */
+	public void setThrusterActive(boolean active) {
+		add(active ? THRUSTER_ON : THRUSTER_OFF, 0);
+	}
+
+	/**
+	 * Returns the number of commands in this buffer.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Lets the given ship take the actions in this buffer, in the order they were recorded, and empties this buffer.
+	 */
+	public void apply(Ship ship) {
+		for(int i = 0; i < size; i++) {
+			switch(commands[i]) {
+				case TURN: ship.turn(arguments[i]); break;
+				case FIRE: ship.fireBullet(); break;
+				case THRUSTER_ON: ship.setThrusterActive(true); break;
+				default: ship.setThrusterActive(false);
+			}
+		}
+		clear();
+	}
+
+	/**
+	 * Empties this buffer.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Appends the given command with the given argument to this buffer.
+	 */
+	private void add(byte command, double argument) {
+		if(size == commands.length) {
+			commands = Arrays.copyOf(commands, 2*size);
+			arguments = Arrays.copyOf(arguments, 2*size);
+		}
+		commands[size] = command;
+		arguments[size] = argument;
+		size++;
+	}
+
+	private static final byte TURN = 0;
+
+	private static final byte FIRE = 1;
+
+	private static final byte THRUSTER_ON = 2;
+
+	private static final byte THRUSTER_OFF = 3;
+
+	/**
+	 * The commands in this buffer, in the order they were recorded, in the first size elements.
+	 */
+	private byte[] commands = new byte[4];
+
+	/**
+	 * The arguments of the commands in this buffer.
+	 */
+	private double[] arguments = new double[4];
+
+	private int size = 0;
+
+}
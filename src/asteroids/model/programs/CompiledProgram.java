@@ -0,0 +1,207 @@
+package asteroids.model.programs;
+
+import java.util.List;
+
+import asteroids.model.Ship;
+import asteroids.model.SpaceObject;
+import asteroids.model.programs.Statement.standardStatement.Foreach;
+
+/**
+ * A class of executions of programs compiled to bytecode.
+ * The program compiler generates a subclass of this class for every code it compiles. The subclass keeps the
+ * global variables of the code in fields of their own type, and runs the instructions of the code in a single
+ * method, so the virtual machine can compile the whole program to machine code.
+ * This class keeps the program counter and the loop stack, which work as in the interpreter.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public abstract class CompiledProgram {
+
+	/**
+	 * Prepares this execution of the given code by the given ship.
+	 * @param constants
+	 * 		  The constants the generated code refers to.
+	 */
+	final void initialize(ProgramCode code, Ship ship, Object[] constants) {
+		this.ship = ship;
+		this.constants = constants;
+		this.counters = new int[code.getMaxLoopDepth()];
+		this.loops = new Object[code.getMaxLoopDepth()];
+		for(int slot = 0; slot < code.getNrOfSlots(); slot++) {
+			setValue(slot, code.getInitialValue(slot));
+		}
+	}
+
+	/**
+	 * The ship executing this program.
+	 */
+	protected Ship ship;
+
+	/**
+	 * The constants the generated code refers to, like the statements it calls back into.
+	 */
+	protected Object[] constants;
+
+	/**
+	 * Returns the value of the variable in the given slot, wrapped in a new type.
+	 */
+	public abstract Type getValue(int slot);
+
+	/**
+	 * Sets the variable in the given slot to the value of the given type.
+	 */
+	public abstract void setValue(int slot, Type value);
+
+	/**
+	 * Runs the instructions of the code the given number of times up to the next action statement,
+	 * executing at most the given budget of statements like ProgramInstance.execute(int).
+	 */
+	public final void execute(int value, long budget) {
+		limit = ProgramInstance.getLimit(executed, budget);
+		for(int i = 0; i < value; i++) {
+			if(!run()) {return;}
+		}
+	}
+
+	/**
+	 * Runs the instructions of the code up to and including the next action statement.
+	 * @return False if the code halted, or this program exceeded its budget and is suspended.
+	 */
+	protected abstract boolean run();
+
+	/**
+	 * Sets the buffer recording the actions of this program, null to let the ship take them right away.
+	 */
+	final void setBuffer(CommandBuffer buffer) {
+		this.buffer = buffer;
+	}
+
+	private CommandBuffer buffer = null;
+
+	/**
+	 * Lets the ship turn over the given angle, or records it if the actions are buffered.
+	 */
+	protected final void turn(double angle) {
+		if(buffer != null) {buffer.turn(angle);}
+		else {ship.turn(angle);}
+	}
+
+	/**
+	 * Lets the ship fire a bullet, or records it if the actions are buffered.
+	 */
+	protected final void fire() {
+		if(buffer != null) {buffer.fire();}
+		else {ship.fireBullet();}
+	}
+
+	/**
+	 * Turns the thruster of the ship on or off, or records it if the actions are buffered.
+	 */
+	protected final void setThrusterActive(boolean active) {
+		if(buffer != null) {buffer.setThrusterActive(active);}
+		else {ship.setThrusterActive(active);}
+	}
+
+	/**
+	 * The number of executed statements at which the current execution is suspended.
+	 */
+	protected long limit = Long.MAX_VALUE;
+
+	/**
+	 * Suspends this program, to resume at the given address.
+	 * @return False, to be returned by run().
+	 */
+	protected final boolean suspend(int address) {
+		pc = address;
+		nrOfSuspensions++;
+		return false;
+	}
+
+	/**
+	 * Returns the number of times this program exceeded its budget and was suspended.
+	 */
+	public long getNrOfSuspensions() {
+		return nrOfSuspensions;
+	}
+
+	private long nrOfSuspensions = 0;
+
+	/**
+	 * Returns the address of the instruction this program executes next.
+	 */
+	public int getProgramCounter() {
+		return pc;
+	}
+
+	/**
+	 * The address of the instruction this program executes next.
+	 */
+	protected int pc = 0;
+
+	/**
+	 * Returns the number of statements this program has executed, counted as in the interpreter.
+	 */
+	public long getNrOfExecutedStatements() {
+		return executed;
+	}
+
+	/**
+	 * The number of statements this program has executed.
+	 */
+	protected long executed = 0;
+
+	/**
+	 * Pushes a for loop running the given number of times on the loop stack.
+	 */
+	protected final void push(int times) {
+		counters[depth] = times;
+		loops[depth] = null;
+		depth++;
+	}
+
+	/**
+	 * Pushes a loop over the space objects of the given foreach statement on the loop stack.
+	 */
+	protected final void push(Object foreach) {
+		counters[depth] = 0;
+		loops[depth] = ((Foreach) foreach).getSpaceObjects(ship);
+		depth++;
+	}
+
+	/**
+	 * Counts down the for loop on top of the loop stack.
+	 * @return True if the loop has to run again.
+	 */
+	protected final boolean countDown() {
+		return counters[depth-1]-- > 0;
+	}
+
+	/**
+	 * Checks whether the foreach loop on top of the loop stack has a next space object.
+	 */
+	protected final boolean hasNext() {
+		return counters[depth-1] < ((List<?>) loops[depth-1]).size();
+	}
+
+	/**
+	 * Returns the next space object of the foreach loop on top of the loop stack.
+	 */
+	protected final SpaceObject next() {
+		return (SpaceObject) ((List<?>) loops[depth-1]).get(counters[depth-1]++);
+	}
+
+	/**
+	 * Pops the loop on top of the loop stack.
+	 */
+	protected final void pop() {
+		loops[--depth] = null;
+	}
+
+	private int[] counters;
+
+	private Object[] loops;
+
+	private int depth = 0;
+
+}
@@ -20,5 +20,15 @@ public class DoubleT extends Type {
 	}
 	
 	private double value = 0.0;
+	
+	@Override
+	public Kind getKind() {
+		return Kind.DOUBLE;
+	}
+	
+	@Override
+	public DoubleT copy() {
+		return new DoubleT(value);
+	}
 
 }
@@ -21,4 +21,14 @@ public class EntityT extends Type {
 	}
 	
 	private SpaceObject value;
+	
+	@Override
+	public Kind getKind() {
+		return Kind.ENTITY;
+	}
+	
+	@Override
+	public EntityT copy() {
+		return new EntityT(value);
+	}
 }
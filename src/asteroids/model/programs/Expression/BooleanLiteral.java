@@ -11,8 +11,23 @@ public class BooleanLiteral extends Expression {
 	}
 
 	@Override
-	public Type getValue() {
+	public boolean evalBoolean(ProgramInstance instance) {
+		return ((BooleanT) getType()).getValue();
+	}
+	
+	@Override
+	public boolean isConstant() {
+		return true;
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
 		return getType();
 	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) {
+		return Boolean.toString(((BooleanT) getType()).getValue());
+	}
 
 }
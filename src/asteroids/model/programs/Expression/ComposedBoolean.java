@@ -1,6 +1,7 @@
 package asteroids.model.programs.Expression;
 import asteroids.model.*;
 import asteroids.model.programs.*;
+import java.util.List;
 
 public abstract class ComposedBoolean extends Expression {
 	
@@ -31,28 +32,116 @@ public abstract class ComposedBoolean extends Expression {
 	
 	protected Expression e2;
 	
-	public Type checkBool() {
-		Type type1=getExpression1().getValue();
-		Type type2=getExpression2().getValue();
+	/**
+	 * Checks whether the operands of this expression are equal. Every operand is evaluated exactly once.
+	 * If the types of both operands are known before evaluation, they are compared without wrapping their values.
+	 * A type checked expression compares its operands as the kind of values it found, without checking their types.
+	 * @throws IllegalArgumentException
+	 * 		   The operands are of different types.
+	 */
+	protected boolean operandsEqual(ProgramInstance instance) throws IllegalArgumentException {
+		if(operandKind != null) {
+			switch(operandKind) {
+				case DOUBLE: return getExpression1().evalDouble(instance) == getExpression2().evalDouble(instance);
+				case ENTITY: return getExpression1().evalEntity(instance) == getExpression2().evalEntity(instance);
+				default: return getExpression1().evalBoolean(instance) == getExpression2().evalBoolean(instance);
+			}
+		}
+		Type type1 = getExpression1().getType();
+		Type type2 = getExpression2().getType();
 		
-		if(type1 instanceof BooleanT && type2 instanceof BooleanT) {
-			return (BooleanT) type1;
+		if(type1 instanceof DoubleT && type2 instanceof DoubleT) {
+			return getExpression1().evalDouble(instance) == getExpression2().evalDouble(instance);
+		}
+		else if(type1 instanceof EntityT && type2 instanceof EntityT) {
+			return getExpression1().evalEntity(instance) == getExpression2().evalEntity(instance);
+		}
+		else if(type1 instanceof BooleanT && type2 instanceof BooleanT) {
+			return getExpression1().evalBoolean(instance) == getExpression2().evalBoolean(instance);
 		}
+		return valuesEqual(getExpression1().getValue(instance), getExpression2().getValue(instance));
+	}
+	
+	/**
+	 * Checks whether the given values are equal.
+	 * @throws IllegalArgumentException
+	 * 		   The values are of different types.
+	 */
+	private static boolean valuesEqual(Type value1, Type value2) throws IllegalArgumentException {
 		
-		else if(type1 instanceof DoubleT && type2 instanceof DoubleT) {
-			return (DoubleT) type1;
+		if(value1 instanceof BooleanT && value2 instanceof BooleanT) {
+			return ((BooleanT) value1).getValue() == ((BooleanT) value2).getValue();
 		}
 		
-		else if(type1 instanceof EntityT && type2 instanceof EntityT) {
-			return (EntityT) type1;
+		else if(value1 instanceof DoubleT && value2 instanceof DoubleT) {
+			return ((DoubleT) value1).getValue() == ((DoubleT) value2).getValue();
+		}
+		
+		else if(value1 instanceof EntityT && value2 instanceof EntityT) {
+			return ((EntityT) value1).getValue() == ((EntityT) value2).getValue();
 		}
 		
 		else {throw new IllegalArgumentException();}
 		
 	}
 	
+	@Override
+	protected void copyChildren() {
+		e1 = copyOf(e1);
+		e2 = copyOf(e2);
+	}
 	
-}
-
-
+	@Override
+	public List<Code> getChildren() {
+		return asChildren(e1, e2);
+	}
+	
+	@Override
+	public boolean isConstant() {
+		return e1 != null && e1.isConstant() && e2 != null && e2.isConstant();
+	}
+	
+	@Override
+	public Expression optimize(ProgramOptimizer optimizer) {
+		setExpression1(optimizer.optimize(e1));
+		setExpression2(optimizer.optimize(e2));
+		return optimizer.fold(this);
+	}
+	
+	/**
+	 * The kind of the operands found by the type checker, null if this expression isn't type checked.
+	 */
+	private Type.Kind operandKind = null;
+	
+	@Override
+	public void resolve(ProgramCode code) {
+		this.operandKind = null;
+		super.resolve(code);
+	}
+	
+	/**
+	 * Checks whether the operands of this expression are numbers.
+	 */
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+		checkKind(e1, Type.Kind.DOUBLE);
+		checkKind(e2, Type.Kind.DOUBLE);
+	}
+	
+	/**
+	 * Checks whether the operands of this expression are of the same kind, and specializes the comparison
+	 * of the operands to that kind.
+	 * @throws IllegalArgumentException
+	 * 		   An operand doesn't exist or its kind isn't known, or the operands are of different kinds.
+	 */
+	protected void checkComparable(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+		if(e1 == null || e2 == null) {throw typeError("unsupported expression");}
+		if(e1.getKind() == null || e1.getKind() != e2.getKind()) {
+			throw typeError("can't compare a value of type " + e1.getKind() + " with a value of type " + e2.getKind());
+		}
+		this.operandKind = e1.getKind();
+	}
 
+}
@@ -1,6 +1,7 @@
 package asteroids.model.programs.Expression;
 import asteroids.model.*;
 import asteroids.model.programs.*;
+import java.util.List;
 
 public abstract class ComposedDouble extends Expression {
 	
@@ -35,5 +36,42 @@ public abstract class ComposedDouble extends Expression {
 	}
 	
 	protected Expression e2;
+	
+	@Override
+	protected void copyChildren() {
+		e1 = copyOf(e1);
+		e2 = copyOf(e2);
+	}
+	
+	@Override
+	public List<Code> getChildren() {
+		return asChildren(e1, e2);
+	}
+	
+	/**
+	 * Returns the number of operands of this expression.
+	 */
+	protected int getNrOfOperands() {
+		return 2;
+	}
+	
+	@Override
+	public boolean isConstant() {
+		return e1 != null && e1.isConstant() && (getNrOfOperands() == 1 || e2 != null && e2.isConstant());
+	}
+	
+	@Override
+	public Expression optimize(ProgramOptimizer optimizer) {
+		setExpression1(optimizer.optimize(e1));
+		setExpression2(optimizer.optimize(e2));
+		return optimizer.fold(this);
+	}
+	
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+		checkKind(e1, Type.Kind.DOUBLE);
+		if(getNrOfOperands() == 2) {checkKind(e2, Type.Kind.DOUBLE);}
+	}
 
 }
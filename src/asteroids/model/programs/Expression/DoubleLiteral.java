@@ -11,9 +11,23 @@ public class DoubleLiteral extends Expression{
 	
 	
 	@Override
-	public Type getValue() {
+	public double evalDouble(ProgramInstance instance) {
+		return ((DoubleT) getType()).getValue();
+	}
+	
+	@Override
+	public boolean isConstant() {
+		return true;
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
 		return getType();
 	}
 	
+	@Override
+	public String translate(ProgramCompiler compiler) {
+		return ProgramCompiler.literal(((DoubleT) getType()).getValue());
+	}
 
 }
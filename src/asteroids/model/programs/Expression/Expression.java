@@ -25,7 +25,72 @@ public abstract class Expression extends Code {
 		
 		private Type type;
 
-		public abstract Type getValue();
+		@Override
+		public Expression copy() {
+			return (Expression) super.copy();
+		}
+
+		/**
+		 * Returns the kind of the values of this expression, null if it isn't known before evaluation.
+		 */
+		public Type.Kind getKind() {
+			return type == null ? null : type.getKind();
+		}
+		
+		/**
+		 * Returns the value of this expression, wrapped in a type.
+		 * Expressions evaluated in the interpreter are evaluated through evalDouble(instance), evalBoolean(instance) or evalEntity(instance),
+		 * this method remains for expressions whose type is only known at run time.
+		 */
+		public abstract Type getValue(ProgramInstance instance);
+		
+		/**
+		 * Returns the value of this expression of type double.
+		 * Expressions of type double override this method to evaluate without wrapping their value.
+		 */
+		public double evalDouble(ProgramInstance instance) {
+			return ((DoubleT) getValue(instance)).getValue();
+		}
+		
+		/**
+		 * Returns the value of this expression of type boolean.
+		 * Expressions of type boolean override this method to evaluate without wrapping their value.
+		 */
+		public boolean evalBoolean(ProgramInstance instance) {
+			return ((BooleanT) getValue(instance)).getValue();
+		}
+		
+		/**
+		 * Returns the value of this expression of type entity.
+		 * Expressions of type entity override this method to evaluate without wrapping their value.
+		 */
+		public SpaceObject evalEntity(ProgramInstance instance) {
+			return ((EntityT) getValue(instance)).getValue();
+		}
+		
+		/**
+		 * Checks whether this expression always has the same value, without reading variables or the world.
+		 */
+		public boolean isConstant() {
+			return false;
+		}
+		
+		/**
+		 * Optimizes this expression, which has to be type checked, and returns the expression replacing it.
+		 * Expressions containing other expressions optimize those, and are folded to a literal if they become constant.
+		 */
+		public Expression optimize(ProgramOptimizer optimizer) {
+			return this;
+		}
+		
+		/**
+		 * Returns a Java expression computing the value of this expression, for the program compiler.
+		 * @throws IllegalArgumentException
+		 * 		   This expression can't be compiled.
+		 */
+		public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+			throw typeError("the expression can't be compiled");
+		}
 }
 
 
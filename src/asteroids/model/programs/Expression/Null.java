@@ -10,9 +10,23 @@ public class Null extends Expression {
 	}
 	
 	@Override
-	public Type getValue() {
+	public SpaceObject evalEntity(ProgramInstance instance) {
+		return null;
+	}
+	
+	@Override
+	public boolean isConstant() {
+		return true;
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
 		return new EntityT(null);
 	}
 	
+	@Override
+	public String translate(ProgramCompiler compiler) {
+		return "((asteroids.model.SpaceObject) null)";
+	}
 
 }
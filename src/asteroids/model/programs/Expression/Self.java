@@ -8,13 +8,23 @@ public class Self extends Expression {
 		super(line, column, program, new EntityT());
 	}
 	
-	public Type getValue() {
-		return new EntityT(getProgram().getShip());
+	@Override
+	public SpaceObject evalEntity(ProgramInstance instance) {
+		return instance.getShip();
+	}
+	
+	public Type getValue(ProgramInstance instance) {
+		return new EntityT(instance.getShip());
 	}
 	
 	@Override
 	public String toString() {
 		return "SpaceObject";
 	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) {
+		return compiler.ship();
+	}
 
 }
@@ -1,6 +1,7 @@
 package asteroids.model.programs.Expression;
 import asteroids.model.*;
 import asteroids.model.programs.*;
+import java.util.List;
 
 public abstract class SingleExpression extends Expression {
 	
@@ -18,7 +19,27 @@ public abstract class SingleExpression extends Expression {
 	}
 	
 	protected Expression expression;
-
 	
+	@Override
+	protected void copyChildren() {
+		expression = copyOf(expression);
+	}
+	
+	@Override
+	public List<Code> getChildren() {
+		return asChildren(expression);
+	}
+	
+	@Override
+	public Expression optimize(ProgramOptimizer optimizer) {
+		setExpression(optimizer.optimize(expression));
+		return this;
+	}
+	
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+		checkKind(expression, Type.Kind.ENTITY);
+	}
 
 }
@@ -12,11 +12,48 @@ public class Variable extends Expression {
 	}
 	
 	@Override
-	public Type getValue() {
-		Type type = getProgram().getGlobal(value);
-		return type;
+	public Type getValue(ProgramInstance instance) {
+		if(slot == -1) {return instance.getGlobal(value);}
+		return instance.getSlotValue(slot);
 	}
 	
+	@Override
+	public double evalDouble(ProgramInstance instance) {
+		if(slot == -1) {return super.evalDouble(instance);}
+		return ((DoubleT) instance.getSlotValue(slot)).getValue();
+	}
+	
+	@Override
+	public boolean evalBoolean(ProgramInstance instance) {
+		if(slot == -1) {return super.evalBoolean(instance);}
+		return ((BooleanT) instance.getSlotValue(slot)).getValue();
+	}
+	
+	@Override
+	public SpaceObject evalEntity(ProgramInstance instance) {
+		if(slot == -1) {return super.evalEntity(instance);}
+		return ((EntityT) instance.getSlotValue(slot)).getValue();
+	}
+	
+	/**
+	 * Returns the slot of the value of this variable in the program, -1 if this variable isn't resolved.
+	 */
+	public int getSlot() {
+		return this.slot;
+	}
+	
+	/**
+	 * Resolves this variable to its slot. A declared variable gets the type of its declaration.
+	 */
+	@Override
+	public void resolve(ProgramCode code) {
+		this.slot = code.resolveSlot(value);
+		Type declared = code.getInitialValue(slot);
+		if(declared != null) {setType(declared.copy());}
+	}
+	
+	private int slot = -1;
+	
 	public String getString() {
 		return this.value;
 	}
@@ -27,5 +64,19 @@ public class Variable extends Expression {
 	
 	
 	private String value;
+	
+	/**
+	 * Checks whether this variable is declared.
+	 */
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		if(getKind() == null) {throw typeError("undeclared variable " + value);}
+	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		if(slot == -1) {throw typeError("unresolved variable " + value);}
+		return compiler.variable(slot);
+	}
 
 }
@@ -1,7 +1,8 @@
 package asteroids.model.programs.Expression.booleanExpression;
+import asteroids.model.programs.ProgramCode;
+import asteroids.model.programs.ProgramCompiler;
+import asteroids.model.programs.ProgramInstance;
 import asteroids.model.programs.BooleanT;
-import asteroids.model.programs.DoubleT;
-import asteroids.model.programs.EntityT;
 import asteroids.model.programs.Type;
 import asteroids.model.programs.Expression.*;
 import asteroids.model.*;
@@ -13,25 +14,23 @@ public class Inequality extends ComposedBoolean {
 	}
 
 	@Override
-	public Type getValue() {
-		
-		Type type = checkBool();
-		Type exp1 = getExpression1().getValue();
-		Type exp2 = getExpression2().getValue();
-		boolean result = false;
-		try {
-		if(type instanceof DoubleT) {
-			result = (((DoubleT) exp1).getValue() != ((DoubleT) exp2).getValue());
-		}
-		else if(type instanceof EntityT) {
-			result = (((EntityT) exp1).getValue() != ((EntityT) exp2).getValue());
-		}
-		else {
-			result = (((BooleanT) exp1).getValue() != ((BooleanT) exp2).getValue());
-		}}
-		catch(IllegalArgumentException illegalargument) {
-			throw new IllegalArgumentException(illegalargument);
-		}
-		return new BooleanT(result);
-		}
+	public boolean evalBoolean(ProgramInstance instance) {
+		return !operandsEqual(instance);
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
+		return new BooleanT(evalBoolean(instance));
+	}
+	
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		checkComparable(code);
+	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		return "(" + e1.translate(compiler) + " != " + e2.translate(compiler) + ")";
+	}
+
 }
@@ -11,9 +11,18 @@ public class LessThanOrEqualTo extends ComposedBoolean {
 	}
 
 	@Override
-	public Type getValue() {
-		boolean result = (((DoubleT)(e1.getValue())).getValue() <= ((DoubleT)(e2.getValue())).getValue());
-		return new BooleanT(result);
+	public boolean evalBoolean(ProgramInstance instance) {
+		return e1.evalDouble(instance) <= e2.evalDouble(instance);
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
+		return new BooleanT(evalBoolean(instance));
+	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		return "(" + e1.translate(compiler) + " <= " + e2.translate(compiler) + ")";
 	}
 
 }
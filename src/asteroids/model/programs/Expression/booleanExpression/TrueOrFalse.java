@@ -2,6 +2,7 @@ package asteroids.model.programs.Expression.booleanExpression;
 import asteroids.model.Program;
 import asteroids.model.programs.Expression.*;
 import asteroids.model.programs.*;
+import java.util.List;
 
 public class TrueOrFalse extends ComposedDouble {
 	
@@ -21,18 +22,53 @@ public class TrueOrFalse extends ComposedDouble {
 	protected Expression condition;
 	
 	@Override
-	public Type getValue() {
-		boolean condition = ((BooleanT) getCondition().getValue()).getValue();
-		double result;
-		if(condition) {
-			result= ((DoubleT) e1.getValue()).getValue();
-		}
-		else {
-			result = ((DoubleT) e2.getValue()).getValue();
+	public double evalDouble(ProgramInstance instance) {
+		if(getCondition().evalBoolean(instance)) {return e1.evalDouble(instance);}
+		return e2.evalDouble(instance);
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
+		return new DoubleT(evalDouble(instance));
+	}
+	
+	@Override
+	protected void copyChildren() {
+		super.copyChildren();
+		condition = copyOf(condition);
+	}
+	
+	@Override
+	public List<Code> getChildren() {
+		return asChildren(getCondition(), e1, e2);
+	}
+	
+	@Override
+	public boolean isConstant() {
+		return super.isConstant() && getCondition() != null && getCondition().isConstant();
+	}
+	
+	/**
+	 * Replaces this expression by the operand it evaluates to if the condition is constant.
+	 */
+	@Override
+	public Expression optimize(ProgramOptimizer optimizer) {
+		setCondition(optimizer.optimize(getCondition()));
+		if(getCondition() != null && getCondition().isConstant()) {
+			return optimizer.optimize(getCondition().evalBoolean(null) ? e1 : e2);
 		}
-		
-		return new DoubleT(result);
-		
+		return super.optimize(optimizer);
+	}
+	
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		super.typeCheck(code);
+		checkKind(getCondition(), Type.Kind.BOOLEAN);
+	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		return "(" + getCondition().translate(compiler) + " ? " + e1.translate(compiler) + " : " + e2.translate(compiler) + ")";
 	}
 
 }
@@ -10,10 +10,18 @@ public class GetDir extends Expression {
 	}
 	
 	@Override
-	public Type getValue() {
-		Ship currentship = getProgram().getShip();
-		double value = currentship.getDirection();
-		return new DoubleT(value);
+	public double evalDouble(ProgramInstance instance) {
+		return instance.getShip().getDirection();
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
+		return new DoubleT(evalDouble(instance));
+	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) {
+		return compiler.ship() + ".getDirection()";
 	}
 
 }
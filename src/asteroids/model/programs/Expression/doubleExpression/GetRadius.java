@@ -14,10 +14,18 @@ public class GetRadius extends SingleExpression {
 	}
 	
 	@Override
-	public Type getValue() {
-		SpaceObject spaceobject = ((EntityT) expression.getValue()).getValue();
-		return new DoubleT(spaceobject.getRadius());
+	public double evalDouble(ProgramInstance instance) {
+		return expression.evalEntity(instance).getRadius();
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
+		return new DoubleT(evalDouble(instance));
+	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		return expression.translate(compiler) + ".getRadius()";
 	}
-
 
 }
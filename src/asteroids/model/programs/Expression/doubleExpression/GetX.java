@@ -14,17 +14,18 @@ public class GetX extends SingleExpression {
 	}
 	
 	@Override
-	public Type getValue() {
-		SpaceObject spaceobject = ((EntityT) expression.getValue()).getValue();
-		return new DoubleT(spaceobject.getPosition().getX());
+	public double evalDouble(ProgramInstance instance) {
+		return expression.evalEntity(instance).getXPosition();
 	}
-
-	
-
-	
-	
-	
 	
+	@Override
+	public Type getValue(ProgramInstance instance) {
+		return new DoubleT(evalDouble(instance));
+	}
 	
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		return expression.translate(compiler) + ".getXPosition()";
+	}
 
 }
@@ -12,11 +12,18 @@ public class GetY extends SingleExpression {
 	}
 	
 	@Override
-	public Type getValue() {
-		SpaceObject spaceobject = ((EntityT) expression.getValue()).getValue();
-		return new DoubleT(spaceobject.getPosition().getY());
+	public double evalDouble(ProgramInstance instance) {
+		return expression.evalEntity(instance).getYPosition();
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
+		return new DoubleT(evalDouble(instance));
 	}
-
 	
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		return expression.translate(compiler) + ".getYPosition()";
+	}
 
 }
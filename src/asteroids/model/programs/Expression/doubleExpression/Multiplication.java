@@ -11,9 +11,18 @@ public class Multiplication extends ComposedDouble {
 	}
 	
 	@Override
-	public Type getValue() {
-		double product = (((DoubleT)(e1.getValue())).getValue() * ((DoubleT)(e2.getValue())).getValue());
-		return new DoubleT(product);
+	public double evalDouble(ProgramInstance instance) {
+		return e1.evalDouble(instance) * e2.evalDouble(instance);
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
+		return new DoubleT(evalDouble(instance));
+	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		return "(" + e1.translate(compiler) + " * " + e2.translate(compiler) + ")";
 	}
 
 }
@@ -11,9 +11,23 @@ public class Sqrt extends ComposedDouble {
 	}
 	
 	@Override
-	public Type getValue() {
-		double sqrt = Math.sqrt(((DoubleT)(e1.getValue())).getValue());
-		return new DoubleT(sqrt);
+	public double evalDouble(ProgramInstance instance) {
+		return Math.sqrt(e1.evalDouble(instance));
+	}
+	
+	@Override
+	public Type getValue(ProgramInstance instance) {
+		return new DoubleT(evalDouble(instance));
+	}
+	
+	@Override
+	protected int getNrOfOperands() {
+		return 1;
+	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		return "Math.sqrt(" + e1.translate(compiler) + ")";
 	}
 
 }
@@ -0,0 +1,146 @@
+package asteroids.model.programs;
+
+import asteroids.model.programs.Expression.Expression;
+import asteroids.model.programs.Statement.SimpleStatement;
+import asteroids.model.programs.Statement.Statement;
+
+/**
+ * A class of instructions of compiled programs.
+ * A program is compiled to a flat array of instructions, in which the statements that contain other
+ * statements are replaced by jumps. An instruction refers to the statement or the expression it executes,
+ * and to the address it jumps to, if any. Only simple statements are executed as an instruction of their own.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public final class Instruction {
+
+	/**
+	 * The kinds of instructions.
+	 */
+	public enum Opcode {
+		/**
+		 * Executes a statement that isn't an action statement, and continues with the next instruction.
+		 */
+		STATEMENT,
+		/**
+		 * Executes an action statement, and suspends the program at the next instruction.
+		 */
+		ACTION,
+		/**
+		 * Continues with the instruction at the target.
+		 */
+		JUMP,
+		/**
+		 * Continues with the next instruction if the expression evaluates to true, and with the instruction at the target otherwise.
+		 */
+		BRANCH,
+		/**
+		 * Pushes a loop running the number of times the expression evaluates to, rounded, on the loop stack.
+		 */
+		LOOP,
+		/**
+		 * Continues with the next instruction if the loop on top of the loop stack has to run again,
+		 * pops the loop and continues with the instruction at the target otherwise.
+		 */
+		NEXT,
+		/**
+		 * Pushes a loop over the space objects of the foreach statement on the loop stack.
+		 */
+		FOREACH,
+		/**
+		 * Binds the variable of the foreach statement to the next space object of the loop on top of the loop stack,
+		 * and continues with the next instruction. Pops the loop and continues with the instruction at the target
+		 * if there is no next space object.
+		 */
+		NEXT_ENTITY,
+		/**
+		 * Stops the program for good.
+		 */
+		HALT
+	}
+
+	/**
+	 * Creates a new instruction.
+	 * @param opcode
+	 * 		  The kind of the instruction.
+	 * @param statement
+	 * 		  The statement the instruction executes. May be null.
+	 * @param expression
+	 * 		  The expression the instruction evaluates. May be null.
+	 * @param target
+	 * 		  The address the instruction jumps to, -1 if it doesn't jump.
+	 */
+	Instruction(Opcode opcode, Statement statement, Expression expression, int target) {
+		this.opcode = opcode;
+		this.statement = statement;
+		this.simpleStatement = null;
+		this.expression = expression;
+		this.target = target;
+	}
+
+	/**
+	 * Creates a new instruction executing the given simple statement.
+	 * @param opcode
+	 * 		  The kind of the instruction, STATEMENT or ACTION.
+	 * @param statement
+	 * 		  The statement the instruction executes.
+	 */
+	Instruction(Opcode opcode, SimpleStatement statement) {
+		this.opcode = opcode;
+		this.statement = statement;
+		this.simpleStatement = statement;
+		this.expression = null;
+		this.target = -1;
+	}
+
+	public Opcode getOpcode() {
+		return opcode;
+	}
+
+	private final Opcode opcode;
+
+	public Statement getStatement() {
+		return statement;
+	}
+
+	private final Statement statement;
+
+	/**
+	 * Returns the statement a STATEMENT or ACTION instruction executes, null for the other kinds of instructions.
+	 */
+	public SimpleStatement getSimpleStatement() {
+		return simpleStatement;
+	}
+
+	private final SimpleStatement simpleStatement;
+
+	public Expression getExpression() {
+		return expression;
+	}
+
+	private final Expression expression;
+
+	/**
+	 * Returns the address this instruction jumps to, -1 if it doesn't jump.
+	 */
+	public int getTarget() {
+		return target;
+	}
+
+	/**
+	 * Sets the address this instruction jumps to. Only the code compiling this instruction sets it,
+	 * once the address is known.
+	 */
+	void setTarget(int target) {
+		this.target = target;
+	}
+
+	private int target;
+
+	@Override
+	public String toString() {
+		return opcode + (target == -1 ? "" : " " + target);
+	}
+
+}
@@ -0,0 +1,324 @@
+package asteroids.model.programs;
+
+import java.util.*;
+
+import asteroids.model.programs.Expression.Expression;
+import asteroids.model.programs.Statement.SimpleStatement;
+import asteroids.model.programs.Statement.Statement;
+
+/**
+ * A class of compiled programs, shared by every ship executing them.
+ * The code holds a copy of the statement of a program with its variables resolved to slots, the instructions
+ * the statement is compiled to, and the declared global variables with their initial values. It holds no state
+ * of an execution, and changing the program or type checking another code of it leaves this code as it is,
+ * so it doesn't change once it is type checked; every ship executes it through a program instance of its own. On request, a type checked code is also compiled to bytecode by the program compiler.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public final class ProgramCode {
+
+	/**
+	 * Compiles a copy of the given statement with the given global variables.
+	 * Every variable in the copy is resolved to a slot, so an instance keeps the values of the variables
+	 * in an array, and the statement is lowered to a flat array of instructions with jumps.
+	 * @param globals
+	 * 		  The declared global variables, mapping their names to their initial values.
+	 * @param statement
+	 * 		  The statement of the program. May be null.
+	 */
+	public ProgramCode(Map<String, Type> globals, Statement statement) {
+		for(Map.Entry<String, Type> global : globals.entrySet()) {
+			int slot = resolveSlot(global.getKey());
+			Type value = global.getValue();
+			initialValues.set(slot, value == null ? null : value.copy());
+			kinds.set(slot, value == null ? null : value.getKind());
+			declared.put(global.getKey(), initialValues.get(slot));
+		}
+		this.statement = statement == null ? null : statement.copy();
+		if(this.statement != null) {
+			this.statement.resolve(this);
+			this.statement.compile(this);
+		}
+		emit(Instruction.Opcode.HALT, null, null, -1);
+		this.compiled = instructions.toArray(new Instruction[instructions.size()]);
+		this.resolved = true;
+	}
+
+	/**
+	 * Returns the copy of the statement this code is compiled from, null if it has none.
+	 */
+	public Statement getStatement() {
+		return statement;
+	}
+
+	private final Statement statement;
+
+	/**
+	 * Returns the declared global variables of this code, mapping their names to their initial values.
+	 */
+	public Map<String, Type> getGlobals() {
+		return Collections.unmodifiableMap(declared);
+	}
+
+	private final Map<String, Type> declared = new LinkedHashMap<String, Type>();
+
+	/**
+	 * Returns the slot of the variable with the given name, adding a slot for it if it has none.
+	 * Variables that aren't declared get a slot as well, without an initial value.
+	 * @throws IllegalArgumentException
+	 * 		   This code is already compiled, and has no variable with the given name.
+	 */
+	public int resolveSlot(String name) throws IllegalArgumentException {
+		Integer slot = slots.get(name);
+		if(slot != null) {return slot;}
+		if(resolved) {throw new IllegalArgumentException("unknown variable " + name);}
+		slot = names.size();
+		names.add(name);
+		slots.put(name, slot);
+		initialValues.add(null);
+		kinds.add(null);
+		return slot;
+	}
+
+	/**
+	 * Returns the slot of the variable with the given name, -1 if it has none.
+	 */
+	public int getSlot(String name) {
+		Integer slot = slots.get(name);
+		return slot == null ? -1 : slot;
+	}
+
+	/**
+	 * Returns the name of the variable in the given slot.
+	 */
+	public String getName(int slot) {
+		return names.get(slot);
+	}
+
+	/**
+	 * Returns the number of slots of this code.
+	 */
+	public int getNrOfSlots() {
+		return names.size();
+	}
+
+	/**
+	 * Returns the initial value of the variable in the given slot, null if the variable isn't declared.
+	 * The value is shared by every instance, so it may not be changed.
+	 */
+	public Type getInitialValue(int slot) {
+		return initialValues.get(slot);
+	}
+
+	/**
+	 * Returns the kind of the variable in the given slot as it was declared,
+	 * null if the variable isn't declared or the slot doesn't exist.
+	 */
+	public Type.Kind getDeclaredKind(int slot) {
+		if(slot < 0 || slot >= kinds.size()) {return null;}
+		return kinds.get(slot);
+	}
+
+	/**
+	 * The slots of the variables, by name.
+	 */
+	private final Map<String, Integer> slots = new HashMap<String, Integer>();
+
+	/**
+	 * The names of the variables, by slot.
+	 */
+	private final List<String> names = new ArrayList<String>();
+
+	/**
+	 * The initial values of the variables, by slot.
+	 */
+	private final List<Type> initialValues = new ArrayList<Type>();
+
+	/**
+	 * The declared kinds of the variables, by slot.
+	 */
+	private final List<Type.Kind> kinds = new ArrayList<Type.Kind>();
+
+	/**
+	 * Appends an instruction to the instructions of this code.
+	 * @param opcode
+	 * 		  The kind of the instruction.
+	 * @param statement
+	 * 		  The statement the instruction executes. May be null.
+	 * @param expression
+	 * 		  The expression the instruction evaluates. May be null.
+	 * @param target
+	 * 		  The address the instruction jumps to, -1 if it doesn't jump or the address isn't known yet.
+	 * @return The address of the instruction.
+	 * @throws IllegalArgumentException
+	 * 		   This code is already compiled, or the instruction executes a statement.
+	 */
+	public int emit(Instruction.Opcode opcode, Statement statement, Expression expression, int target) throws IllegalArgumentException {
+		if(opcode == Instruction.Opcode.STATEMENT || opcode == Instruction.Opcode.ACTION) {
+			throw new IllegalArgumentException("only a simple statement is executed as an instruction");
+		}
+		return emit(new Instruction(opcode, statement, expression, target));
+	}
+
+	/**
+	 * Appends an instruction executing the given simple statement to the instructions of this code.
+	 * @param opcode
+	 * 		  The kind of the instruction, STATEMENT or ACTION.
+	 * @param statement
+	 * 		  The statement the instruction executes.
+	 * @return The address of the instruction.
+	 * @throws IllegalArgumentException
+	 * 		   This code is already compiled, or the instruction doesn't execute a statement.
+	 */
+	public int emit(Instruction.Opcode opcode, SimpleStatement statement) throws IllegalArgumentException {
+		if(opcode != Instruction.Opcode.STATEMENT && opcode != Instruction.Opcode.ACTION) {
+			throw new IllegalArgumentException("the instruction doesn't execute a statement");
+		}
+		return emit(new Instruction(opcode, statement));
+	}
+
+	private int emit(Instruction instruction) throws IllegalArgumentException {
+		if(resolved) {throw new IllegalArgumentException("the code is already compiled");}
+		instructions.add(instruction);
+		return instructions.size() - 1;
+	}
+
+	/**
+	 * Lets the instruction at the given address jump to the address of the next instruction to be appended.
+	 * @throws IllegalArgumentException
+	 * 		   This code is already compiled.
+	 */
+	public void setTargetToNext(int address) throws IllegalArgumentException {
+		if(resolved) {throw new IllegalArgumentException("the code is already compiled");}
+		instructions.get(address).setTarget(instructions.size());
+	}
+
+	/**
+	 * Returns the address of the next instruction to be appended.
+	 */
+	public int getNextAddress() {
+		return instructions.size();
+	}
+
+	/**
+	 * Returns the instruction at the given address.
+	 */
+	public Instruction getInstruction(int address) {
+		return compiled != null ? compiled[address] : instructions.get(address);
+	}
+
+	/**
+	 * Returns the number of instructions of this code.
+	 */
+	public int getNrOfInstructions() {
+		return instructions.size();
+	}
+
+	/**
+	 * The instructions of this code, by address. The last instruction halts the program.
+	 */
+	private final List<Instruction> instructions = new ArrayList<Instruction>();
+
+	/**
+	 * The instructions of this code once it is compiled, null before.
+	 */
+	private Instruction[] compiled = null;
+
+	/**
+	 * Registers that the instructions appended from now on are part of one more loop.
+	 */
+	public void enterLoop() {
+		loopDepth++;
+		maxLoopDepth = Math.max(maxLoopDepth, loopDepth);
+	}
+
+	/**
+	 * Registers that the instructions appended from now on are part of one loop less.
+	 */
+	public void exitLoop() {
+		loopDepth--;
+	}
+
+	/**
+	 * Returns the maximum number of loops the instructions of this code are part of at once,
+	 * which is the size of the loop stack an instance needs.
+	 */
+	public int getMaxLoopDepth() {
+		return maxLoopDepth;
+	}
+
+	private int loopDepth = 0;
+
+	private int maxLoopDepth = 0;
+
+	/**
+	 * Whether the statement of this code is resolved.
+	 */
+	private boolean resolved = false;
+
+	/**
+	 * Returns the class this code is compiled to by the program compiler, compiling it the first time.
+	 * The code is compiled once it is type checked; the class shares the instructions of this code.
+	 * @return The compiled class, or null if this code can't be compiled. The reason is then
+	 * 		   given by getCompilationError().
+	 */
+	public synchronized Class<? extends CompiledProgram> getCompiledClass() {
+		if(compiledClass == null && compilationError == null) {
+			ProgramCompiler compiler = new ProgramCompiler(this);
+			try {
+				compiledClass = compiler.compile();
+				compiledConstants = compiler.getConstants();
+			}
+			catch(IllegalArgumentException exc) {compilationError = exc.getMessage();}
+		}
+		return compiledClass;
+	}
+
+	/**
+	 * Returns why this code can't be compiled, null if it can or isn't compiled yet.
+	 */
+	public synchronized String getCompilationError() {
+		return compilationError;
+	}
+
+	/**
+	 * Returns the constants the compiled class of this code refers to, null if this code isn't compiled.
+	 */
+	synchronized Object[] getCompiledConstants() {
+		return compiledConstants;
+	}
+
+	private Class<? extends CompiledProgram> compiledClass = null;
+
+	private Object[] compiledConstants = null;
+
+	private String compilationError = null;
+
+	/**
+	 * Checks the types in the statement of this code, and specializes the statement to the types it finds.
+	 * A code that is type checked isn't checked again.
+	 * @throws IllegalArgumentException
+	 * 		   The code isn't well typed. The message tells where and why.
+	 */
+	public void typeCheck() throws IllegalArgumentException {
+		if(typeChecked) {return;}
+		synchronized(this) {
+			compiledClass = null;
+			compiledConstants = null;
+			compilationError = null;
+		}
+		if(statement != null) {statement.typeCheck(this);}
+		typeChecked = true;
+	}
+
+	/**
+	 * Checks whether the statement of this code is type checked.
+	 */
+	public boolean isTypeChecked() {
+		return typeChecked;
+	}
+
+	private volatile boolean typeChecked = false;
+
+}
@@ -0,0 +1,247 @@
+package asteroids.model.programs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.tools.*;
+
+import asteroids.model.programs.Statement.standardStatement.Foreach;
+
+/**
+ * A class of compilers of program code to bytecode.
+ * The compiler translates the instructions of a code to the source of a subclass of CompiledProgram, with a field
+ * for every global variable and a single method running the instructions as the cases of a switch on the program
+ * counter, and compiles that source with the Java compiler of the platform at load time.
+ * The statements and expressions of the code translate themselves through translate(ProgramCompiler).
+ * The interpreter remains the reference implementation; the compiled code executes the same instructions.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public final class ProgramCompiler {
+
+	/**
+	 * Checks whether the platform has a Java compiler, which is the case on a JDK but not on a bare JRE.
+	 */
+	public static boolean isAvailable() {
+		return ToolProvider.getSystemJavaCompiler() != null;
+	}
+
+	/**
+	 * Creates a new compiler for the given code.
+	 */
+	ProgramCompiler(ProgramCode code) {
+		this.code = code;
+	}
+
+	private final ProgramCode code;
+
+	/**
+	 * Returns the name of the field holding the variable in the given slot.
+	 * @throws IllegalArgumentException
+	 * 		   The variable isn't declared, so the type of its field isn't known.
+	 */
+	public String variable(int slot) throws IllegalArgumentException {
+		if(code.getDeclaredKind(slot) == null) {throw new IllegalArgumentException("undeclared variable");}
+		return "v" + slot;
+	}
+
+	/**
+	 * Returns a Java expression referring to the given constant.
+	 */
+	public String constant(Object value) {
+		constants.add(value);
+		return "constants[" + (constants.size() - 1) + "]";
+	}
+
+	/**
+	 * The constants the generated code refers to.
+	 */
+	private final List<Object> constants = new ArrayList<Object>();
+
+	/**
+	 * Returns the constants the generated code refers to.
+	 */
+	Object[] getConstants() {
+		return constants.toArray();
+	}
+
+	/**
+	 * Returns a Java expression for the given number.
+	 */
+	public static String literal(double value) {
+		if(Double.isNaN(value)) {return "Double.NaN";}
+		if(value == Double.POSITIVE_INFINITY) {return "Double.POSITIVE_INFINITY";}
+		if(value == Double.NEGATIVE_INFINITY) {return "Double.NEGATIVE_INFINITY";}
+		return "(" + Double.toString(value) + ")";
+	}
+
+	/**
+	 * Returns a Java expression referring to the ship executing the program.
+	 */
+	public String ship() {
+		return "ship";
+	}
+
+	/**
+	 * Returns the source of the subclass of CompiledProgram with the given simple name.
+	 * @throws IllegalArgumentException
+	 * 		   The code contains statements or expressions that can't be compiled, or it isn't type checked.
+	 */
+	String translate(String name) throws IllegalArgumentException {
+		StringBuilder source = new StringBuilder();
+		source.append("package ").append(PACKAGE).append(";\n\n");
+		source.append("public final class ").append(name).append(" extends asteroids.model.programs.CompiledProgram {\n\n");
+		for(int slot = 0; slot < code.getNrOfSlots(); slot++) {
+			source.append("\tprivate ").append(getJavaType(slot)).append(" ").append(variable(slot)).append(";\n");
+		}
+		source.append("\n\t@Override\n\tprotected boolean run() {\n\t\twhile(true) {\n\t\t\tswitch(pc) {\n");
+		for(int address = 0; address < code.getNrOfInstructions(); address++) {
+			source.append("\t\t\tcase ").append(address).append(":\n");
+			translate(code.getInstruction(address), address, source);
+		}
+		source.append("\t\t\tdefault: return false;\n\t\t\t}\n\t\t}\n\t}\n\n");
+		source.append("\t@Override\n\tpublic asteroids.model.programs.Type getValue(int slot) {\n\t\tswitch(slot) {\n");
+		for(int slot = 0; slot < code.getNrOfSlots(); slot++) {
+			source.append("\t\tcase ").append(slot).append(": return new ").append(getWrapperType(slot))
+				.append("(").append(variable(slot)).append(");\n");
+		}
+		source.append("\t\tdefault: return null;\n\t\t}\n\t}\n\n");
+		source.append("\t@Override\n\tpublic void setValue(int slot, asteroids.model.programs.Type value) {\n\t\tswitch(slot) {\n");
+		for(int slot = 0; slot < code.getNrOfSlots(); slot++) {
+			source.append("\t\tcase ").append(slot).append(": ").append(variable(slot)).append(" = ((").append(getWrapperType(slot))
+				.append(") value).getValue(); return;\n");
+		}
+		source.append("\t\tdefault: throw new IllegalArgumentException(\"no slot \" + slot);\n\t\t}\n\t}\n\n}\n");
+		return source.toString();
+	}
+
+	/**
+	 * Appends the Java statements of the given instruction at the given address to the given source.
+	 * The statements of an instruction fall through to the next instruction.
+	 */
+	private void translate(Instruction instruction, int address, StringBuilder source) throws IllegalArgumentException {
+		String target = "pc = " + instruction.getTarget() + "; continue;";
+		switch(instruction.getOpcode()) {
+			case STATEMENT:
+				source.append("\t\t\t\texecuted++;\n\t\t\t\t").append(instruction.getSimpleStatement().translate(this)).append("\n");
+				break;
+			case ACTION:
+				source.append("\t\t\t\texecuted++;\n\t\t\t\t").append(instruction.getSimpleStatement().translate(this)).append("\n");
+				source.append("\t\t\t\tpc = ").append(address + 1).append(";\n\t\t\t\treturn true;\n");
+				break;
+			case JUMP:
+				if(instruction.getTarget() < address) {
+					source.append("\t\t\t\tif(executed >= limit) {return suspend(").append(instruction.getTarget()).append(");}\n");
+				}
+				source.append("\t\t\t\t").append(target).append("\n");
+				break;
+			case BRANCH:
+				source.append("\t\t\t\texecuted++;\n\t\t\t\tif(!").append(instruction.getExpression().translate(this))
+					.append(") {").append(target).append("}\n");
+				break;
+			case LOOP:
+				source.append("\t\t\t\texecuted++;\n\t\t\t\tpush((int) Math.round(").append(instruction.getExpression().translate(this)).append("));\n");
+				break;
+			case NEXT:
+				source.append("\t\t\t\tif(!countDown()) {pop(); ").append(target).append("}\n");
+				break;
+			case FOREACH:
+				source.append("\t\t\t\texecuted++;\n\t\t\t\tpush(").append(constant(instruction.getStatement())).append(");\n");
+				break;
+			case NEXT_ENTITY:
+				source.append("\t\t\t\tif(!hasNext()) {pop(); ").append(target).append("}\n\t\t\t\t")
+					.append(variable(((Foreach) instruction.getStatement()).getSlot())).append(" = next();\n");
+				break;
+			default:
+				source.append("\t\t\t\tpc = ").append(address).append(";\n\t\t\t\treturn false;\n");
+		}
+	}
+
+	/**
+	 * Returns the Java type of the field of the variable in the given slot.
+	 */
+	private String getJavaType(int slot) {
+		switch(code.getDeclaredKind(slot)) {
+			case DOUBLE: return "double";
+			case BOOLEAN: return "boolean";
+			default: return "asteroids.model.SpaceObject";
+		}
+	}
+
+	/**
+	 * Returns the name of the type wrapping values of the variable in the given slot.
+	 */
+	private String getWrapperType(int slot) {
+		switch(code.getDeclaredKind(slot)) {
+			case DOUBLE: return "asteroids.model.programs.DoubleT";
+			case BOOLEAN: return "asteroids.model.programs.BooleanT";
+			default: return "asteroids.model.programs.EntityT";
+		}
+	}
+
+	/**
+	 * Compiles the code of this compiler to a subclass of CompiledProgram, loaded in a class loader of its own.
+	 * @throws IllegalArgumentException
+	 * 		   The platform has no Java compiler, the code can't be translated, or its translation doesn't compile.
+	 */
+	Class<? extends CompiledProgram> compile() throws IllegalArgumentException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if(compiler == null) {throw new IllegalArgumentException("no Java compiler available");}
+		String name = "Program" + nrOfClasses.getAndIncrement();
+		final String source = translate(name);
+		JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///" + PACKAGE.replace('.', '/') + "/" + name + ".java"),
+				JavaFileObject.Kind.SOURCE) {
+			@Override
+			public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+				return source;
+			}
+		};
+		final Map<String, ByteArrayOutputStream> classes = new HashMap<String, ByteArrayOutputStream>();
+		JavaFileManager files = new ForwardingJavaFileManager<StandardJavaFileManager>(compiler.getStandardFileManager(null, null, null)) {
+			@Override
+			public JavaFileObject getJavaFileForOutput(Location location, final String className, JavaFileObject.Kind kind, FileObject sibling) {
+				return new SimpleJavaFileObject(URI.create("bytes:///" + className.replace('.', '/') + kind.extension), kind) {
+					@Override
+					public OutputStream openOutputStream() {
+						ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+						classes.put(className, bytes);
+						return bytes;
+					}
+				};
+			}
+		};
+		StringWriter errors = new StringWriter();
+		List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"), "-proc:none", "-g:none");
+		if(!compiler.getTask(errors, files, null, options, null, Collections.singletonList(file)).call()) {
+			throw new IllegalArgumentException("the translated program doesn't compile: " + errors);
+		}
+		final ClassLoader parent = ProgramCompiler.class.getClassLoader();
+		ClassLoader loader = new ClassLoader(parent) {
+			@Override
+			protected Class<?> findClass(String className) throws ClassNotFoundException {
+				ByteArrayOutputStream bytes = classes.get(className);
+				if(bytes == null) {throw new ClassNotFoundException(className);}
+				byte[] code = bytes.toByteArray();
+				return defineClass(className, code, 0, code.length);
+			}
+		};
+		try {return loader.loadClass(PACKAGE + "." + name).asSubclass(CompiledProgram.class);}
+		catch(ClassNotFoundException exc) {throw new IllegalArgumentException(exc);}
+	}
+
+	/**
+	 * The number of classes compiled so far, used to give every class a name of its own.
+	 */
+	private static final AtomicInteger nrOfClasses = new AtomicInteger();
+
+	/**
+	 * The package of the compiled classes.
+	 */
+	private static final String PACKAGE = "asteroids.model.programs.compiled";
+
+}
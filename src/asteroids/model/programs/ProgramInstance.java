@@ -0,0 +1,442 @@
+package asteroids.model.programs;
+
+import java.util.*;
+
+import asteroids.model.Ship;
+import asteroids.model.SpaceObject;
+import asteroids.model.programs.Statement.standardStatement.Foreach;
+
+/**
+ * A class of executions of compiled programs by a ship.
+ * An instance holds everything that changes while a program executes: the values of its variables,
+ * its program counter, its stack of running loops and the number of statements executed so far.
+ * The instance executes the instructions of the code in a loop, without walking the statements they came from,
+ * so resuming after an action statement takes constant time.
+ * Any number of instances can execute the same code.
+ * Every call of execute(int) may execute a bounded number of statements. An instance that exceeds this budget
+ * in a loop without action statements is suspended when it jumps back, and resumes there on the next call.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public final class ProgramInstance {
+
+	/**
+	 * Creates a new instance executing the given code on the given ship. The variables start out
+	 * with copies of their initial values, and the program counter at the first instruction.
+	 * @param code
+	 * 		  The code to execute.
+	 * @param ship
+	 * 		  The ship executing the code.
+	 * @throws IllegalArgumentException
+	 * 		   The code is null.
+	 */
+	public ProgramInstance(ProgramCode code, Ship ship) throws IllegalArgumentException {
+		this(code, ship, false);
+	}
+
+	/**
+	 * Creates a new instance executing the given code on the given ship, compiled to bytecode if asked for.
+	 * The instance falls back on the interpreter if the code can't be compiled.
+	 * @param compiled
+	 * 		  True if the instance has to execute the code compiled to bytecode.
+	 * @throws IllegalArgumentException
+	 * 		   The code is null.
+	 */
+	public ProgramInstance(ProgramCode code, Ship ship, boolean compiled) throws IllegalArgumentException {
+		if(code == null) {throw new IllegalArgumentException("no code");}
+		this.code = code;
+		this.ship = ship;
+		this.compiled = compiled ? createCompiledProgram(code, ship) : null;
+		this.values = new Type[this.compiled == null ? code.getNrOfSlots() : 0];
+		for(int slot = 0; slot < values.length; slot++) {
+			values[slot] = copyOf(code.getInitialValue(slot));
+		}
+		this.counters = new int[code.getMaxLoopDepth()];
+		this.loops = new Object[code.getMaxLoopDepth()];
+	}
+
+	/**
+	 * Returns a new execution of the given code compiled to bytecode by the given ship,
+	 * null if the code can't be compiled.
+	 */
+	private static CompiledProgram createCompiledProgram(ProgramCode code, Ship ship) {
+		Class<? extends CompiledProgram> compiledClass = code.getCompiledClass();
+		if(compiledClass == null) {return null;}
+		try {
+			CompiledProgram program = compiledClass.getConstructor().newInstance();
+			program.initialize(code, ship, code.getCompiledConstants());
+			return program;
+		}
+		catch(ReflectiveOperationException exc) {return null;}
+	}
+
+	/**
+	 * Checks whether this instance executes its code compiled to bytecode.
+	 */
+	public boolean isCompiled() {
+		return compiled != null;
+	}
+
+	/**
+	 * The execution of the code compiled to bytecode, null if this instance interprets the code.
+	 */
+	private final CompiledProgram compiled;
+
+	/**
+	 * Returns the code this instance executes.
+	 */
+	public ProgramCode getCode() {
+		return code;
+	}
+
+	private final ProgramCode code;
+
+	/**
+	 * Returns the ship executing this instance.
+	 */
+	public Ship getShip() {
+		return ship;
+	}
+
+	private final Ship ship;
+
+	/**
+	 * Returns a copy of the given value, or null if it is null.
+	 */
+	private static Type copyOf(Type type) {
+		return type == null ? null : type.copy();
+	}
+
+	/**
+	 * Returns the value in the given slot. A compiled instance returns a copy of the value.
+	 */
+	public Type getSlotValue(int slot) {
+		if(compiled != null) {return compiled.getValue(slot);}
+		return values[slot];
+	}
+
+	/**
+	 * Sets the value in the given slot. The slot holds the given type itself, which the program may change
+	 * when the variable is assigned again, so the given type may not be shared.
+	 */
+	public void setSlotValue(int slot, Type type) {
+		if(compiled != null) {compiled.setValue(slot, type);}
+		else {values[slot] = type;}
+	}
+
+	/**
+	 * Returns the value of the variable with the given name, null if the code has no such variable.
+	 */
+	public Type getGlobal(String name) {
+		int slot = code.getSlot(name);
+		return slot == -1 ? null : getSlotValue(slot);
+	}
+
+	/**
+	 * Sets the variable with the given name to a copy of the given value.
+	 * @throws IllegalArgumentException
+	 * 		   The code has no variable with the given name.
+	 */
+	public void setGlobal(String name, Type type) throws IllegalArgumentException {
+		int slot = code.getSlot(name);
+		if(slot == -1) {throw new IllegalArgumentException("unknown variable " + name);}
+		setSlotValue(slot, copyOf(type));
+	}
+
+	/**
+	 * The values of the variables, by slot.
+	 */
+	private final Type[] values;
+
+	/**
+	 * Returns a view of the variables of this instance, mapping their names to their values.
+	 * Changes to this instance show in the view, and putting a variable in the view sets it in this instance.
+	 */
+	public Map<String,Type> getGlobals() {
+		return globalsView;
+	}
+
+	/**
+	 * The view of the variables of this instance returned by getGlobals().
+	 */
+	private final Map<String,Type> globalsView = new AbstractMap<String,Type>() {
+
+		@Override
+		public Type get(Object name) {
+			return name instanceof String ? getGlobal((String) name) : null;
+		}
+
+		@Override
+		public boolean containsKey(Object name) {
+			return name instanceof String && code.getSlot((String) name) != -1;
+		}
+
+		@Override
+		public Type put(String name, Type type) {
+			Type old = getGlobal(name);
+			setGlobal(name, type);
+			return old;
+		}
+
+		@Override
+		public Set<Map.Entry<String,Type>> entrySet() {
+			return new AbstractSet<Map.Entry<String,Type>>() {
+
+				@Override
+				public int size() {
+					return code.getNrOfSlots();
+				}
+
+				@Override
+				public Iterator<Map.Entry<String,Type>> iterator() {
+					return new Iterator<Map.Entry<String,Type>>() {
+
+						private int slot = 0;
+
+						@Override
+						public boolean hasNext() {
+							return slot < code.getNrOfSlots();
+						}
+
+						@Override
+						public Map.Entry<String,Type> next() {
+							if(!hasNext()) {throw new NoSuchElementException();}
+							Map.Entry<String,Type> entry = new AbstractMap.SimpleImmutableEntry<String,Type>(code.getName(slot), getSlotValue(slot));
+							slot++;
+							return entry;
+						}
+
+						@Override
+						public void remove() {
+							throw new UnsupportedOperationException();
+						}
+					};
+				}
+			};
+		}
+	};
+
+	/**
+	 * Returns the address of the instruction this instance executes next.
+	 */
+	public int getProgramCounter() {
+		if(compiled != null) {return compiled.getProgramCounter();}
+		return pc;
+	}
+
+	/**
+	 * The address of the instruction this instance executes next.
+	 */
+	private int pc = 0;
+
+	/**
+	 * The counters of the running loops, by depth on the loop stack. A for loop counts the iterations
+	 * it still has to run, a foreach loop the space objects it already iterated over.
+	 */
+	private final int[] counters;
+
+	/**
+	 * The space objects the running foreach loops iterate over, by depth on the loop stack.
+	 * The entry of a for loop is null.
+	 */
+	private final Object[] loops;
+
+	/**
+	 * The number of running loops.
+	 */
+	private int depth = 0;
+
+	/**
+	 * Returns the number of statements this instance has executed.
+	 * A loop counts once when it starts, and a while loop once for every test of its condition.
+	 */
+	public long getNrOfExecutedStatements() {
+		if(compiled != null) {return compiled.getNrOfExecutedStatements();}
+		return nrOfExecutedStatements;
+	}
+
+	private long nrOfExecutedStatements = 0;
+
+	/**
+	 * Runs the instructions of the code the given number of times up to the next action statement.
+	 * Every run resumes at the instruction following the last action statement, and stops once an action
+	 * statement is executed. Does nothing once the code is halted.
+	 */
+	public void execute(int value) {
+		if(compiled != null) {
+			compiled.execute(value, budget);
+			return;
+		}
+		limit = getLimit(nrOfExecutedStatements, budget);
+		for(int i = 0; i < value; i++) {
+			if(!run()) {return;}
+		}
+	}
+	
+	/**
+	 * Runs the instructions of the code the given number of times up to the next action statement, like execute(int),
+	 * recording the actions in the given buffer instead of letting the ship take them. The program then only
+	 * reads the world and changes this instance, so the instances of several ships may execute in parallel.
+	 * @param buffer
+	 * 		  The buffer to record the actions in.
+	 */
+	public void execute(int value, CommandBuffer buffer) {
+		this.buffer = buffer;
+		if(compiled != null) {compiled.setBuffer(buffer);}
+		try {execute(value);}
+		finally {
+			this.buffer = null;
+			if(compiled != null) {compiled.setBuffer(null);}
+		}
+	}
+	
+	/**
+	 * The buffer recording the actions of the current execution, null if the ship takes them right away.
+	 */
+	private CommandBuffer buffer = null;
+	
+	/**
+	 * Lets the ship turn over the given angle, or records it if the actions are buffered.
+	 */
+	public void turn(double angle) {
+		if(buffer != null) {buffer.turn(angle);}
+		else {ship.turn(angle);}
+	}
+	
+	/**
+	 * Lets the ship fire a bullet, or records it if the actions are buffered.
+	 */
+	public void fire() {
+		if(buffer != null) {buffer.fire();}
+		else {ship.fireBullet();}
+	}
+	
+	/**
+	 * Turns the thruster of the ship on or off, or records it if the actions are buffered.
+	 */
+	public void setThrusterActive(boolean active) {
+		if(buffer != null) {buffer.setThrusterActive(active);}
+		else {ship.setThrusterActive(active);}
+	}
+	
+	/**
+	 * Returns the number of executed statements at which an execution that started at the given number
+	 * of executed statements with the given budget is suspended.
+	 */
+	static long getLimit(long executed, long budget) {
+		return budget > Long.MAX_VALUE - executed ? Long.MAX_VALUE : executed + budget;
+	}
+	
+	/**
+	 * Returns the number of statements this instance may execute per call of execute(int).
+	 */
+	public long getBudget() {
+		return budget;
+	}
+	
+	/**
+	 * Sets the number of statements this instance may execute per call of execute(int).
+	 * The instance is suspended at the first jump back in a loop once it executed that many statements,
+	 * so a call may execute a few statements more; Long.MAX_VALUE lets the instance run unbounded.
+	 * @throws IllegalArgumentException
+	 * 		   The budget isn't positive.
+	 */
+	public void setBudget(long budget) throws IllegalArgumentException {
+		if(budget <= 0) {throw new IllegalArgumentException("budget " + budget);}
+		this.budget = budget;
+	}
+	
+	/**
+	 * The number of statements an instance may execute per call of execute(int) unless it is set otherwise,
+	 * about a millisecond of interpreting.
+	 */
+	public static final long DEFAULT_BUDGET = 100000;
+	
+	private long budget = DEFAULT_BUDGET;
+	
+	/**
+	 * The number of executed statements at which the current call of execute(int) is suspended.
+	 */
+	private long limit = Long.MAX_VALUE;
+	
+	/**
+	 * Returns the number of times this instance exceeded its budget and was suspended.
+	 */
+	public long getNrOfSuspensions() {
+		if(compiled != null) {return compiled.getNrOfSuspensions();}
+		return nrOfSuspensions;
+	}
+	
+	private long nrOfSuspensions = 0;
+
+	/**
+	 * Runs the instructions of the code up to and including the next action statement.
+	 * @return False if the code halted, or this instance exceeded its budget and is suspended.
+	 */
+	@SuppressWarnings("unchecked")
+	private boolean run() {
+		while(true) {
+			Instruction instruction = code.getInstruction(pc);
+			switch(instruction.getOpcode()) {
+				case STATEMENT:
+					nrOfExecutedStatements++;
+					instruction.getSimpleStatement().execute(this);
+					pc++;
+					break;
+				case ACTION:
+					nrOfExecutedStatements++;
+					instruction.getSimpleStatement().execute(this);
+					pc++;
+					return true;
+				case JUMP:
+					boolean back = instruction.getTarget() < pc;
+					pc = instruction.getTarget();
+					if(back && nrOfExecutedStatements >= limit) {
+						nrOfSuspensions++;
+						return false;
+					}
+					break;
+				case BRANCH:
+					nrOfExecutedStatements++;
+					pc = instruction.getExpression().evalBoolean(this) ? pc + 1 : instruction.getTarget();
+					break;
+				case LOOP:
+					nrOfExecutedStatements++;
+					counters[depth] = (int) Math.round(instruction.getExpression().evalDouble(this));
+					loops[depth] = null;
+					depth++;
+					pc++;
+					break;
+				case NEXT:
+					if(counters[depth-1]-- > 0) {pc++;}
+					else {
+						depth--;
+						pc = instruction.getTarget();
+					}
+					break;
+				case FOREACH:
+					nrOfExecutedStatements++;
+					counters[depth] = 0;
+					loops[depth] = ((Foreach) instruction.getStatement()).getSpaceObjects(ship);
+					depth++;
+					pc++;
+					break;
+				case NEXT_ENTITY:
+					List<SpaceObject> spaceobjects = (List<SpaceObject>) loops[depth-1];
+					if(counters[depth-1] < spaceobjects.size()) {
+						((Foreach) instruction.getStatement()).bind(this, spaceobjects.get(counters[depth-1]++));
+						pc++;
+					}
+					else {
+						loops[--depth] = null;
+						pc = instruction.getTarget();
+					}
+					break;
+				default:
+					return false;
+			}
+		}
+	}
+
+}
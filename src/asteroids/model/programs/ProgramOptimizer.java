@@ -0,0 +1,239 @@
+package asteroids.model.programs;
+
+import java.util.*;
+
+import asteroids.model.programs.Expression.*;
+import asteroids.model.programs.Expression.booleanExpression.TrueOrFalse;
+import asteroids.model.programs.Statement.Statement;
+import asteroids.model.programs.Statement.standardStatement.Assignment;
+
+/**
+ * A class of optimizers of type checked programs.
+ * The statements and expressions of a program optimize themselves through optimize(ProgramOptimizer): expressions
+ * of constants only are folded to a literal, and statements branching on a constant condition are replaced by
+ * the branch they take. Every sequence then hoists expressions that are evaluated more than once in a run of
+ * assignments, with the same values of the variables they read, into a temporary variable of its own, if that
+ * saves more evaluations than the assignment of the temporary costs.
+ * The optimizer changes the statement it is given; the temporaries it introduces are added to the globals.
+ *
+ * @author Tom De Ferm
+ * @version 0.1
+ */
+public final class ProgramOptimizer {
+
+	/**
+	 * Creates a new optimizer of a program with the given global variables.
+	 * @param globals
+	 * 		  The declared global variables of the program, which are taken into account when naming temporaries.
+	 */
+	public ProgramOptimizer(Map<String, Type> globals) {
+		this.globals = globals;
+	}
+
+	private final Map<String, Type> globals;
+
+	/**
+	 * Optimizes the given statement, which has to be type checked.
+	 * @return The statement replacing the given statement. May be the given statement itself, changed.
+	 */
+	public Statement optimize(Statement statement) {
+		return statement == null ? null : statement.optimize(this);
+	}
+
+	/**
+	 * Optimizes the given expression, which has to be type checked.
+	 * @return The expression replacing the given expression. May be the given expression itself, changed.
+	 */
+	public Expression optimize(Expression expression) {
+		if(expression == null) {return null;}
+		String temporary = replacements.get(expression);
+		if(temporary != null) {return new Variable(expression.getLine(), expression.getColumn(), expression.getProgram(), temporary);}
+		return expression.optimize(this);
+	}
+
+	/**
+	 * Returns a literal with the value of the given expression if it consists of constants only,
+	 * and the given expression itself otherwise.
+	 */
+	public Expression fold(Expression expression) {
+		if(!expression.isConstant() || expression.getChildren().isEmpty()) {return expression;}
+		if(expression.getKind() == Type.Kind.DOUBLE) {
+			nrOfFoldedExpressions++;
+			return new DoubleLiteral(expression.getLine(), expression.getColumn(), expression.getProgram(), expression.evalDouble(null));
+		}
+		if(expression.getKind() == Type.Kind.BOOLEAN) {
+			nrOfFoldedExpressions++;
+			return new BooleanLiteral(expression.getLine(), expression.getColumn(), expression.getProgram(), expression.evalBoolean(null));
+		}
+		return expression;
+	}
+
+	/**
+	 * Returns the number of expressions this optimizer folded to a literal.
+	 */
+	public int getNrOfFoldedExpressions() {
+		return nrOfFoldedExpressions;
+	}
+
+	private int nrOfFoldedExpressions = 0;
+
+	/**
+	 * Hoists the expressions evaluated more than once in the runs of assignments among the given statements
+	 * into temporaries, and returns the statements with the assignments of the temporaries inserted.
+	 * An expression is only hoisted as long as none of the variables it reads is assigned in between,
+	 * and the larger expressions are hoisted first.
+	 */
+	public List<Statement> eliminateCommonSubexpressions(List<Statement> statements) {
+		List<Statement> result = new ArrayList<Statement>(statements);
+		int start = 0;
+		while(start < result.size()) {
+			int end = start;
+			while(end < result.size() && result.get(end) instanceof Assignment) {end++;}
+			if(end > start + 1) {
+				List<Statement> run = new ArrayList<Statement>(result.subList(start, end));
+				while(hoist(run)) {}
+				result.subList(start, end).clear();
+				result.addAll(start, run);
+				end = start + run.size();
+			}
+			start = end + 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Hoists the largest expression evaluated more than once in the given run of assignments into a temporary.
+	 * @return True if an expression was hoisted.
+	 */
+	private boolean hoist(List<Statement> run) {
+		Map<String, List<Expression>> open = new HashMap<String, List<Expression>>();
+		Map<String, Integer> firstStatements = new HashMap<String, Integer>();
+		List<Expression> best = null;
+		int bestSize = 0;
+		int bestStatement = -1;
+		int bestEnd = -1;
+		for(int i = 0; i < run.size(); i++) {
+			Assignment assignment = (Assignment) run.get(i);
+			List<Expression> candidates = new ArrayList<Expression>();
+			collectCandidates(assignment.getExpression(), candidates);
+			for(Expression candidate : candidates) {
+				String key = describe(candidate);
+				List<Expression> occurrences = open.get(key);
+				if(occurrences == null) {
+					occurrences = new ArrayList<Expression>();
+					open.put(key, occurrences);
+					firstStatements.put(key, i);
+				}
+				occurrences.add(candidate);
+			}
+			boolean last = i == run.size() - 1;
+			for(Iterator<Map.Entry<String, List<Expression>>> entries = open.entrySet().iterator(); entries.hasNext();) {
+				Map.Entry<String, List<Expression>> entry = entries.next();
+				if(!last && !reads(entry.getValue().get(0), assignment.getString())) {continue;}
+				int size = entry.getValue().get(0).getNrOfNodes();
+				if(isWorthHoisting(size, entry.getValue().size()) && size > bestSize) {
+					best = entry.getValue();
+					bestSize = size;
+					bestStatement = firstStatements.get(entry.getKey());
+					bestEnd = i;
+				}
+				entries.remove();
+			}
+		}
+		if(best == null) {return false;}
+		Expression expression = best.get(0);
+		String temporary = createTemporary(expression.getKind());
+		for(Expression occurrence : best) {replacements.put(occurrence, temporary);}
+		for(int i = bestStatement; i <= bestEnd; i++) {
+			Assignment assignment = (Assignment) run.get(i);
+			assignment.setExpression(optimize(assignment.getExpression()));
+		}
+		replacements.clear();
+		run.add(bestStatement, new Assignment(expression.getLine(), expression.getColumn(), expression.getProgram(), temporary, expression));
+		return true;
+	}
+
+	/**
+	 * Checks whether hoisting an expression of the given number of nodes, evaluated the given number of times,
+	 * saves evaluations. Every occurrence is replaced by a variable, and the temporary is assigned once.
+	 */
+	private static boolean isWorthHoisting(int size, int occurrences) {
+		return occurrences > 1 && (occurrences - 1)*size > occurrences + ASSIGNMENT_COST;
+	}
+
+	/**
+	 * The cost of assigning a temporary, in the number of nodes that can be evaluated in the same time.
+	 * An assignment is executed as an instruction of its own, which makes hoisting a difference of two variables
+	 * that is evaluated twice slower in the interpreter.
+	 */
+	private static final int ASSIGNMENT_COST = 3;
+
+	/**
+	 * The temporaries replacing the expressions that are being hoisted.
+	 */
+	private final Map<Expression, String> replacements = new IdentityHashMap<Expression, String>();
+
+	/**
+	 * Adds the expressions in the given expression that may be hoisted to the given list, larger expressions first.
+	 * Only expressions that are always evaluated are added, so the branches of a conditional expression are skipped.
+	 */
+	private static void collectCandidates(Expression expression, List<Expression> candidates) {
+		if(expression == null || expression.getChildren().isEmpty()) {return;}
+		candidates.add(expression);
+		if(expression instanceof TrueOrFalse) {
+			collectCandidates(((TrueOrFalse) expression).getCondition(), candidates);
+			return;
+		}
+		for(Code child : expression.getChildren()) {collectCandidates((Expression) child, candidates);}
+	}
+
+	/**
+	 * Returns a description of the given expression that is the same for expressions that compute the same value.
+	 */
+	private static String describe(Expression expression) {
+		if(expression instanceof Variable) {return "$" + ((Variable) expression).getString();}
+		if(expression instanceof DoubleLiteral) {return Double.toString(expression.evalDouble(null));}
+		if(expression instanceof BooleanLiteral) {return Boolean.toString(expression.evalBoolean(null));}
+		StringBuilder description = new StringBuilder(expression.getClass().getSimpleName()).append("(");
+		for(Code child : expression.getChildren()) {description.append(describe((Expression) child)).append(",");}
+		return description.append(")").toString();
+	}
+
+	/**
+	 * Checks whether the given expression reads the variable with the given name.
+	 */
+	private static boolean reads(Code code, String name) {
+		if(code instanceof Variable) {return ((Variable) code).getString().equals(name);}
+		for(Code child : code.getChildren()) {
+			if(reads(child, name)) {return true;}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the name of a new temporary of the given kind, declared with the default value of its kind.
+	 * The names of temporaries can't be written in a program, so they don't clash with its variables.
+	 */
+	private String createTemporary(Type.Kind kind) {
+		String name;
+		do {name = "$" + nrOfTemporaries++;} while(globals.containsKey(name) || temporaries.containsKey(name));
+		switch(kind) {
+			case DOUBLE: temporaries.put(name, new DoubleT()); break;
+			case BOOLEAN: temporaries.put(name, new BooleanT()); break;
+			default: temporaries.put(name, new EntityT());
+		}
+		return name;
+	}
+
+	/**
+	 * Returns the temporaries this optimizer introduced, mapping their names to their initial values.
+	 */
+	public Map<String, Type> getTemporaries() {
+		return Collections.unmodifiableMap(temporaries);
+	}
+
+	private final Map<String, Type> temporaries = new LinkedHashMap<String, Type>();
+
+	private int nrOfTemporaries = 0;
+
+}
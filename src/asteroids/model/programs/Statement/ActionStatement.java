@@ -1,12 +1,20 @@
 package asteroids.model.programs.Statement;
+import asteroids.model.programs.Instruction;
+import asteroids.model.programs.ProgramCode;
 import asteroids.model.*;
 
-public abstract class ActionStatement extends Statement {
+public abstract class ActionStatement extends SimpleStatement {
 	
 	public ActionStatement (int line, int column, Program program) {
 		super(line, column, program);
 	}
 	
-	public abstract void execute();
+	/**
+	 * Compiles this statement to an instruction executing it, after which the program is suspended.
+	 */
+	@Override
+	public void compile(ProgramCode code) {
+		code.emit(Instruction.Opcode.ACTION, this);
+	}
 
 }
@@ -1,4 +1,6 @@
 package asteroids.model.programs.Statement;
+import asteroids.model.programs.Code;
+import asteroids.model.programs.ProgramOptimizer;
 import asteroids.model.programs.Statement.standardStatement.*;
 import asteroids.model.programs.Expression.*;
 import asteroids.model.*;
@@ -39,5 +41,21 @@ public abstract class ComplexStatement extends Statement {
 	
 	public abstract Sequence getBody();
 	
-
+	@Override
+	public Statement optimize(ProgramOptimizer optimizer) {
+		setCondition(optimizer.optimize(getCondition()));
+		optimizer.optimize(getSequence());
+		return this;
+	}
+	
+	@Override
+	protected void copyChildren() {
+		condition = copyOf(condition);
+		sequence = copyOf(sequence);
+	}
+	
+	@Override
+	public List<Code> getChildren() {
+		return asChildren(getCondition(), getSequence());
+	}
 }
@@ -0,0 +1,37 @@
+package asteroids.model.programs.Statement;
+import asteroids.model.programs.Instruction;
+import asteroids.model.programs.ProgramCode;
+import asteroids.model.programs.ProgramCompiler;
+import asteroids.model.programs.ProgramInstance;
+import asteroids.model.*;
+
+/**
+ * A statement that doesn't contain other statements, compiled to a single instruction executing it.
+ */
+public abstract class SimpleStatement extends Statement {
+	
+	public SimpleStatement(int line, int column, Program program) {
+		super(line, column, program);
+	}
+	
+	/**
+	 * Executes this statement as a single instruction of compiled code.
+	 */
+	public abstract void execute(ProgramInstance instance);
+	
+	/**
+	 * Compiles this statement to a single instruction executing it.
+	 */
+	@Override
+	public void compile(ProgramCode code) {
+		code.emit(Instruction.Opcode.STATEMENT, this);
+	}
+	
+	/**
+	 * Returns the Java statements executing this statement as a single instruction, for the program compiler.
+	 * @throws IllegalArgumentException
+	 * 		   This statement can't be compiled.
+	 */
+	public abstract String translate(ProgramCompiler compiler) throws IllegalArgumentException;
+
+}
@@ -8,6 +8,22 @@ public abstract class Statement extends Code {
 		super (line, column, program);
 	}
 	
-	public abstract void execute();
+	@Override
+	public Statement copy() {
+		return (Statement) super.copy();
+	}
+	
+	/**
+	 * Compiles this statement to instructions appended to the given code.
+	 */
+	public abstract void compile(ProgramCode code);
+	
+	/**
+	 * Optimizes this statement, which has to be type checked, and returns the statement replacing it.
+	 * Statements optimize the statements and expressions they contain.
+	 */
+	public Statement optimize(ProgramOptimizer optimizer) {
+		return this;
+	}
 
 }
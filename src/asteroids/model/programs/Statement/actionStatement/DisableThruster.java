@@ -1,4 +1,6 @@
 package asteroids.model.programs.Statement.actionStatement;
+import asteroids.model.programs.ProgramCompiler;
+import asteroids.model.programs.ProgramInstance;
 import asteroids.model.*;
 import asteroids.model.programs.Statement.*;
 
@@ -10,10 +12,14 @@ public class DisableThruster extends ActionStatement {
 	}
 	
 	@Override
-	public void execute() {
-		Ship currentship = getProgram().getShip();
-		currentship.setThrusterActive(false);
+	public void execute(ProgramInstance instance) {
+		instance.setThrusterActive(false);
 		
 	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) {
+		return "setThrusterActive(false);";
+	}
 
 }
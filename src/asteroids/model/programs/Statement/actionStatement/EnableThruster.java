@@ -1,4 +1,6 @@
 package asteroids.model.programs.Statement.actionStatement;
+import asteroids.model.programs.ProgramCompiler;
+import asteroids.model.programs.ProgramInstance;
 import asteroids.model.*;
 import asteroids.model.programs.Statement.*;
 
@@ -9,10 +11,14 @@ public class EnableThruster extends ActionStatement {
 	}
 	
 	@Override
-	public void execute() {
-		Ship currentship = getProgram().getShip();
-		currentship.setThrusterActive(true);
+	public void execute(ProgramInstance instance) {
+		instance.setThrusterActive(true);
 		
 	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) {
+		return "setThrusterActive(true);";
+	}
 
 }
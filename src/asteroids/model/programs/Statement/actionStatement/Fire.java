@@ -1,4 +1,6 @@
 package asteroids.model.programs.Statement.actionStatement;
+import asteroids.model.programs.ProgramCompiler;
+import asteroids.model.programs.ProgramInstance;
 import asteroids.model.*;
 import asteroids.model.programs.Statement.*;
 
@@ -9,10 +11,14 @@ public class Fire extends ActionStatement {
 	}
 	
 	@Override
-	public void execute() {
-		Ship currentship = getProgram().getShip();
-		currentship.fireBullet();
+	public void execute(ProgramInstance instance) {
+		instance.fire();
 		
 	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) {
+		return "fire();";
+	}
 
 }
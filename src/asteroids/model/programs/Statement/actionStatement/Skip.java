@@ -1,4 +1,6 @@
 package asteroids.model.programs.Statement.actionStatement;
+import asteroids.model.programs.ProgramCompiler;
+import asteroids.model.programs.ProgramInstance;
 import asteroids.model.Program;
 import asteroids.model.programs.Statement.*;
 
@@ -9,6 +11,11 @@ public class Skip extends ActionStatement {
 	}
 	
 	@Override
-	public void execute() {}
+	public void execute(ProgramInstance instance) {}
 	
+	@Override
+	public String translate(ProgramCompiler compiler) {
+		return ";";
+	}
+
 }
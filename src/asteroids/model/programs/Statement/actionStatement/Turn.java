@@ -1,9 +1,9 @@
 package asteroids.model.programs.Statement.actionStatement;
 import asteroids.model.Program;
 import asteroids.model.programs.*;
-import asteroids.model.Ship;
 import asteroids.model.programs.Expression.*;
 import asteroids.model.programs.Statement.*;
+import java.util.List;
 
 public class Turn extends ActionStatement {
 	
@@ -14,10 +14,8 @@ public class Turn extends ActionStatement {
 	}
 
 	@Override
-	public void execute() {
-		double angle = ((DoubleT) getAngle().getValue()).getValue();
-		Ship currentship = getProgram().getShip();
-		currentship.turn(angle);
+	public void execute(ProgramInstance instance) {
+		instance.turn(getAngle().evalDouble(instance));
 	}
 	
 	public Expression getAngle() {
@@ -25,5 +23,32 @@ public class Turn extends ActionStatement {
 	}
 	
 	private Expression angle;
+	
+	@Override
+	public Statement optimize(ProgramOptimizer optimizer) {
+		this.angle = optimizer.optimize(angle);
+		return this;
+	}
+	
+	@Override
+	protected void copyChildren() {
+		angle = copyOf(angle);
+	}
+	
+	@Override
+	public List<Code> getChildren() {
+		return asChildren(getAngle());
+	}
+	
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+		checkKind(getAngle(), Type.Kind.DOUBLE);
+	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		return "turn(" + getAngle().translate(compiler) + ");";
+	}
 
 }
@@ -4,7 +4,9 @@ import asteroids.model.programs.Expression.*;
 import asteroids.model.programs.Statement.*;
 import asteroids.model.programs.*;
 
-public class Assignment extends Statement {
+import java.util.List;
+
+public class Assignment extends SimpleStatement {
 	
 	public Assignment (int line, int column, Program program, String variable, Expression rhs) {
 		super(line, column, program);
@@ -31,12 +33,99 @@ public class Assignment extends Statement {
 	
 	private Expression rhs;
 	
+	/**
+	 * Returns the slot of the value of the assigned variable in the program, -1 if the variable isn't resolved.
+	 */
+	public int getSlot() {
+		return this.slot;
+	}
+	
+	private int slot = -1;
+	
+	/**
+	 * The kind of the assigned variable found by the type checker, null if this assignment isn't type checked.
+	 */
+	private Type.Kind kind = null;
+	
+	/**
+	 * Checks whether the variable is declared and the expression is of the kind of the variable,
+	 * and specializes the assignment to that kind.
+	 */
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+		Type.Kind declared = code.getDeclaredKind(slot);
+		if(declared == null) {throw typeError("undeclared variable " + this.string);}
+		checkKind(getExpression(), declared);
+		this.kind = declared;
+	}
+	
+	@Override
+	public void resolve(ProgramCode code) {
+		this.slot = code.resolveSlot(this.string);
+		this.kind = null;
+		super.resolve(code);
+	}
+	
 	@Override
-	public void execute() {
+	public Statement optimize(ProgramOptimizer optimizer) {
+		setExpression(optimizer.optimize(getExpression()));
+		return this;
+	}
+	
+	@Override
+	protected void copyChildren() {
+		rhs = copyOf(rhs);
+	}
+	
+	@Override
+	public List<Code> getChildren() {
+		return asChildren(getExpression());
+	}
+	
+	/**
+	 * Assigns the value of the expression to the variable. If the variable holds a value of the type of the
+	 * expression, that value is overwritten, so the assignment doesn't allocate.
+	 * A type checked assignment overwrites that value without checking its type.
+	 */
+	@Override
+	public void execute(ProgramInstance instance) {
 		
-		Type type = getExpression().getValue();
+		if(kind != null) {
+			switch(kind) {
+				case DOUBLE: ((DoubleT) instance.getSlotValue(slot)).setValue(getExpression().evalDouble(instance)); return;
+				case BOOLEAN: ((BooleanT) instance.getSlotValue(slot)).setValue(getExpression().evalBoolean(instance)); return;
+				default: ((EntityT) instance.getSlotValue(slot)).setValue(getExpression().evalEntity(instance)); return;
+			}
+		}
+		if(slot == -1) {
+			instance.setGlobal(this.string, getExpression().getValue(instance));
+			return;
+		}
+		Type current = instance.getSlotValue(slot);
+		Type type = getExpression().getType();
+		if(current instanceof DoubleT && type instanceof DoubleT) {
+			((DoubleT) current).setValue(getExpression().evalDouble(instance));
+		}
+		else if(current instanceof BooleanT && type instanceof BooleanT) {
+			((BooleanT) current).setValue(getExpression().evalBoolean(instance));
+		}
+		else if(current instanceof EntityT && type instanceof EntityT) {
+			((EntityT) current).setValue(getExpression().evalEntity(instance));
+		}
+		else {
+			Type value = getExpression().getValue(instance);
+			instance.setSlotValue(slot, value == null ? null : value.copy());
+		}
+	}
 	
-		getProgram().setGlobal(this.string, type);
+	/**
+	 * Translates this assignment to an assignment of the field of the variable. The assignment has to be type checked.
+	 */
+	@Override
+	public String translate(ProgramCompiler compiler) throws IllegalArgumentException {
+		if(kind == null) {throw typeError("the assignment to " + this.string + " isn't type checked");}
+		return compiler.variable(slot) + " = " + getExpression().translate(compiler) + ";";
 	}
 
 }
@@ -15,15 +15,25 @@ public class For extends ComplexStatement {
 		return getSequence();
 	}
 
+	/**
+	 * Compiles this statement to a loop running its body the number of times its condition evaluates to, rounded.
+	 * The condition is evaluated once, when the loop starts.
+	 */
 	@Override
-	public void execute() {
-		double condition = ((DoubleT) getCondition().getValue()).getValue();
-		int times = (int) Math.round(condition);
-		int index = 0;
-		while(index<times) {
-			getBody().execute();
-			index++;
-		}
-		
+	public void compile(ProgramCode code) {
+		code.emit(Instruction.Opcode.LOOP, this, getCondition(), -1);
+		code.enterLoop();
+		int next = code.emit(Instruction.Opcode.NEXT, this, null, -1);
+		getBody().compile(code);
+		code.emit(Instruction.Opcode.JUMP, this, null, next);
+		code.exitLoop();
+		code.setTargetToNext(next);
 	}
+	
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+		checkKind(getCondition(), Type.Kind.DOUBLE);
+	}
+
 }
@@ -0,0 +1,123 @@
+package asteroids.model.programs.Statement.standardStatement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import asteroids.model.*;
+import asteroids.model.programs.*;
+import asteroids.model.programs.Statement.*;
+import asteroids.model.programs.parsing.ProgramFactory.ForeachType;
+
+public class Foreach extends ComplexStatement {
+	
+	public Foreach(int line, int column, Program program, ForeachType type, String variable, Statement body) {
+		super(line, column, program, body, null);
+		setForeachType(type);
+		setVariable(variable);
+	}
+	
+	public ForeachType getForeachType() {
+		return this.type;
+	}
+	
+	public void setForeachType(ForeachType type) {
+		this.type = type;
+	}
+	
+	private ForeachType type;
+	
+	public String getVariable() {
+		return this.variable;
+	}
+	
+	public void setVariable(String variable) {
+		this.variable = variable;
+	}
+	
+	private String variable;
+	
+	/**
+	 * Returns the slot of the value of the variable of this statement in the program, -1 if the variable isn't resolved.
+	 */
+	public int getSlot() {
+		return this.slot;
+	}
+	
+	private int slot = -1;
+	
+	@Override
+	public void resolve(ProgramCode code) {
+		this.slot = code.resolveSlot(getVariable());
+		super.resolve(code);
+	}
+	
+	/**
+	 * Returns a snapshot of the space objects of the type of this statement in the world of the given ship,
+	 * empty if the ship isn't in a world.
+	 * The statement iterates over the space objects as they were at its start.
+	 */
+	public List<SpaceObject> getSpaceObjects(Ship ship) {
+		World world = ship.getWorld();
+		if(world == null) {return Collections.emptyList();}
+		switch(getForeachType()) {
+			case SHIP: return new ArrayList<SpaceObject>(world.getShips());
+			case ASTEROID: return new ArrayList<SpaceObject>(world.getAsteroids());
+			case BULLET: return new ArrayList<SpaceObject>(world.getBullets());
+			default: return new ArrayList<SpaceObject>(world.getObjects());
+		}
+	}
+	
+	/**
+	 * Lets the variable of this statement refer to the given space object in the given instance.
+	 */
+	public void bind(ProgramInstance instance, SpaceObject spaceobject) {
+		if(slot == -1) {instance.setGlobal(getVariable(), new EntityT(spaceobject));}
+		else if(instance.getSlotValue(slot) instanceof EntityT) {((EntityT) instance.getSlotValue(slot)).setValue(spaceobject);}
+		else {instance.setSlotValue(slot, new EntityT(spaceobject));}
+	}
+	
+	/**
+	 * Compiles this statement to a loop binding its variable to every space object it iterates over in turn,
+	 * and executing its body for each of them.
+	 */
+	@Override
+	public void compile(ProgramCode code) {
+		code.emit(Instruction.Opcode.FOREACH, this, null, -1);
+		code.enterLoop();
+		int next = code.emit(Instruction.Opcode.NEXT_ENTITY, this, null, -1);
+		getBody().compile(code);
+		code.emit(Instruction.Opcode.JUMP, this, null, next);
+		code.exitLoop();
+		code.setTargetToNext(next);
+	}
+	
+	@Override
+	public Sequence getBody() {
+		return getSequence();
+	}
+	
+	/**
+	 * Checks whether the variable of this statement is an entity, and whether its body contains no action statements.
+	 */
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+		if(code.getDeclaredKind(slot) != Type.Kind.ENTITY) {
+			throw typeError("the variable " + getVariable() + " of a foreach loop has to be a declared entity");
+		}
+		if(containsAction(getBody())) {throw typeError("the body of a foreach loop can't contain action statements");}
+	}
+	
+	/**
+	 * Checks whether the given code is or contains an action statement.
+	 */
+	private static boolean containsAction(Code code) {
+		if(code instanceof ActionStatement) {return true;}
+		for(Code child : code.getChildren()) {
+			if(containsAction(child)) {return true;}
+		}
+		return false;
+	}
+
+}
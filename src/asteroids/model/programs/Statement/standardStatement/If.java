@@ -31,20 +31,53 @@ public class If extends ComplexStatement {
 	
 	private Sequence otherwise;
 	
+	/**
+	 * Compiles this statement to a branch on its condition to the statements to execute otherwise,
+	 * preceded by the statements to execute if the condition holds and a jump past the others.
+	 */
 	@Override
-	public void execute() {
-		boolean condition = ((BooleanT) getCondition().getValue()).getValue();
-		Sequence todo = null;
-		if(condition) {todo = getBody();}
-		else {todo = getOtherwise();}
-		
-		todo.execute();
+	public void compile(ProgramCode code) {
+		int branch = code.emit(Instruction.Opcode.BRANCH, this, getCondition(), -1);
+		getBody().compile(code);
+		int jump = code.emit(Instruction.Opcode.JUMP, this, null, -1);
+		code.setTargetToNext(branch);
+		getOtherwise().compile(code);
+		code.setTargetToNext(jump);
+	}
+	
+	/**
+	 * Optimizes this statement, and replaces it by the statements it executes if its condition is constant.
+	 */
+	@Override
+	public Statement optimize(ProgramOptimizer optimizer) {
+		super.optimize(optimizer);
+		optimizer.optimize(getOtherwise());
+		if(getCondition() != null && getCondition().isConstant()) {
+			return getCondition().evalBoolean(null) ? getBody() : getOtherwise();
+		}
+		return this;
 	}
 	
 	@Override
 	public Sequence getBody() {
 		return getSequence();
 	}
-}
-
+	
+	@Override
+	protected void copyChildren() {
+		super.copyChildren();
+		otherwise = copyOf(otherwise);
+	}
+	
+	@Override
+	public List<Code> getChildren() {
+		return asChildren(getCondition(), getBody(), getOtherwise());
+	}
+	
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+		checkKind(getCondition(), Type.Kind.BOOLEAN);
+	}
 
+}
@@ -1,10 +1,15 @@
 package asteroids.model.programs.Statement.standardStatement;
 
+import asteroids.model.programs.ProgramCode;
+import asteroids.model.programs.ProgramCompiler;
+import asteroids.model.programs.ProgramInstance;
 import asteroids.model.Program;
 import asteroids.model.programs.Expression.*;
 import asteroids.model.programs.Statement.*;
+import asteroids.model.programs.Code;
+import java.util.List;
 
-public class Print extends Statement {
+public class Print extends SimpleStatement {
 	
 	public Print (int line, int column, Program program, Expression e) {
 		super(line, column, program);
@@ -22,8 +27,29 @@ public class Print extends Statement {
 	private Expression e;
 	
 	@Override
-	public void execute() {
+	public void execute(ProgramInstance instance) {
 		System.out.println(getExpression().toString());
 	}
+	
+	@Override
+	protected void copyChildren() {
+		e = copyOf(e);
+	}
+	
+	@Override
+	public List<Code> getChildren() {
+		return asChildren(getExpression());
+	}
+	
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		if(getExpression() == null) {throw typeError("unsupported expression");}
+		typeCheckChildren(code);
+	}
+	
+	@Override
+	public String translate(ProgramCompiler compiler) {
+		return "System.out.println(" + compiler.constant(getExpression().toString()) + ");";
+	}
 
 }
@@ -1,4 +1,7 @@
 package asteroids.model.programs.Statement.standardStatement;
+import asteroids.model.programs.Code;
+import asteroids.model.programs.ProgramCode;
+import asteroids.model.programs.ProgramOptimizer;
 
 import asteroids.model.programs.Statement.*;
 
@@ -42,76 +45,36 @@ public class Sequence extends Statement {
 	private List<Statement> statements;
 
 
+	/**
+	 * Compiles the statements of this sequence, one after the other.
+	 */
 	@Override
-	public void execute() {
-		setAction(false);
-		
-		for(int i = getExecutePosition();i<=getStatements().size();i++) {
-			Statement currentstatement = statements.get(i-1);
-			
-			if(currentstatement != null) {
-				currentstatement.execute();
-				
-				if(currentstatement instanceof ActionStatement) {
-					setAction(true);
-					setExecutePosition(i+1);
-					return;
-				}
-				
-				if(currentstatement instanceof ComplexStatement) {
-					
-					ComplexStatement loop = (ComplexStatement) currentstatement;
-					Sequence sequence = loop.getBody();
-					
-					if(sequence.actionHasOccured()) {
-						if (sequence.getExecutePosition() == (sequence.getStatements().size()+1)) {
-							setExecutePosition(i+1);
-							sequence.setExecutePosition(1);
-						}
-						else {
-							setExecutePosition(1);
-						}
-						
-						setAction(true);
-						return;
-					}
-					
-					if (sequence.getExecutePosition() == (sequence.getStatements().size()+1)) {
-						setExecutePosition(1);
-					}
-					
-	
-					
-					
-				}
-			}
-			
-		}
-		setExecutePosition(getStatements().size()+1);
-		setAction(false);
-		
-		
-	}
-	
-	public boolean actionHasOccured() {
-		return actionoccured;
+	public void compile(ProgramCode code) {
+		for(Statement statement : getStatements()) {statement.compile(code);}
 	}
 	
-	public void setAction(boolean value) {
-		this.actionoccured = value;
+	/**
+	 * Optimizes the statements of this sequence, and hoists the expressions they evaluate more than once into temporaries.
+	 */
+	@Override
+	public Statement optimize(ProgramOptimizer optimizer) {
+		List<Statement> optimized = new ArrayList<Statement>();
+		for(Statement statement : getStatements()) {optimized.add(optimizer.optimize(statement));}
+		setStatements(optimized);
+		setStatements(optimizer.eliminateCommonSubexpressions(getStatements()));
+		return this;
 	}
 	
-	private boolean actionoccured=false;
-	
-	public int getExecutePosition() {
-		return this.executeposition;
+	@Override
+	protected void copyChildren() {
+		List<Statement> copies = new ArrayList<Statement>(statements.size());
+		for(Statement statement : statements) {copies.add(statement.copy());}
+		statements = copies;
 	}
 	
-	public void setExecutePosition(int value) {
-		this.executeposition = value;
+	@Override
+	public List<Code> getChildren() {
+		return new ArrayList<Code>(getStatements());
 	}
-	
-	private int executeposition=1;
-}
-		
 
+}
@@ -5,6 +5,8 @@ import asteroids.model.programs.*;
 import asteroids.model.programs.Statement.*;
 import asteroids.model.*;
 
+import java.util.ArrayList;
+
 public class While extends ComplexStatement {
 	
 	public While(int line, int column, Program program, Expression condition, Statement body) {
@@ -12,17 +14,28 @@ public class While extends ComplexStatement {
 	}
 	
 	
+	/**
+	 * Compiles this statement to a branch on its condition past the loop, followed by the body
+	 * and a jump back to the branch. The condition is evaluated again before every iteration.
+	 */
+	@Override
+	public void compile(ProgramCode code) {
+		int branch = code.emit(Instruction.Opcode.BRANCH, this, getCondition(), -1);
+		getBody().compile(code);
+		code.emit(Instruction.Opcode.JUMP, this, null, branch);
+		code.setTargetToNext(branch);
+	}
+	
+	/**
+	 * Optimizes this statement, and drops it if its condition is constantly false.
+	 */
 	@Override
-	public void execute() {
-		boolean condition = ((BooleanT) getCondition().getValue()).getValue();
-		while(condition) {
-			getBody().execute();
-			
-			if(getSequence().getExecutePosition() > getSequence().getStatements().size()) {
-				getSequence().setExecutePosition(1);
-			}
-			if(getSequence().actionHasOccured()) {return;}
+	public Statement optimize(ProgramOptimizer optimizer) {
+		super.optimize(optimizer);
+		if(getCondition() != null && getCondition().isConstant() && !getCondition().evalBoolean(null)) {
+			return new Sequence(line, column, program, new ArrayList<Statement>());
 		}
+		return this;
 	}
 	
 	@Override
@@ -30,5 +43,10 @@ public class While extends ComplexStatement {
 		return getSequence();
 	}
 	
+	@Override
+	public void typeCheck(ProgramCode code) throws IllegalArgumentException {
+		typeCheckChildren(code);
+		checkKind(getCondition(), Type.Kind.BOOLEAN);
+	}
 
 }
@@ -2,6 +2,23 @@ package asteroids.model.programs;
 
 public class Type {
 
+		/**
+		 * The kinds of values in a program.
+		 */
+		public enum Kind { DOUBLE, BOOLEAN, ENTITY }
 		
+		/**
+		 * Returns the kind of the values of this type, null if this type has no kind.
+		 */
+		public Kind getKind() {
+			return null;
+		}
+
+		/**
+		 * Returns a new type holding the same value as this type.
+		 */
+		public Type copy() {
+			return new Type();
+		}
 
 }
@@ -202,7 +202,7 @@ public class ProgramFactoryImplementation implements ProgramFactory<Expression,
 	
 	@Override
 	public Statement createForeach(int line, int column, ForeachType type, String variableName, Statement body) {
-		return null;
+		return new Foreach(line, column, getProgram(), type, variableName, body);
 	}
 	
 	@Override
@@ -0,0 +1,86 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.*;
+import asteroids.model.*;
+import asteroids.model.Vector;
+
+
+
+public class AllocationTest {
+
+	/**
+	 * The maximum number of bytes a single evolve step may allocate on average.
+	 */
+	private static final double BUDGET = 4096;
+
+	private static final double TIME_STEP = 1/60.0;
+
+	private static com.sun.management.ThreadMXBean threads;
+	private World world;
+
+	@BeforeClass
+	public static void setUpImmutableFixture()
+	{
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	@Before
+	public void setUpMutableFixture()
+	{
+		world = new World(1000,1000);
+		for(int i = 0; i < 35; i++) {
+			world.addObject(new Asteroid(new Vector(100+(i%7)*120, 100+(i/7)*120), new Vector((i*37)%41-20, (i*53)%43-21), 20));
+		}
+	}
+
+	/**
+	 * Returns the average number of bytes allocated by the current thread per evolve step of the world.
+	 */
+	private double getAllocatedBytesPerStep(int steps)
+	{
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		for(int i = 0; i < steps; i++) {
+			world.evolve(TIME_STEP);
+		}
+		return (threads.getThreadAllocatedBytes(thread) - before) / (double) steps;
+	}
+
+	@Test
+	public void testEvolve_allocationBudget() {
+		getAllocatedBytesPerStep(2000);
+		double allocated = getAllocatedBytesPerStep(600);
+		assertTrue(allocated + " bytes per step", allocated <= BUDGET);
+	}
+
+	@Test
+	public void testEvolve_allocationBudgetStoreBacked() {
+		world.setStoreBacked(true);
+		getAllocatedBytesPerStep(2000);
+		double allocated = getAllocatedBytesPerStep(600);
+		assertTrue(allocated + " bytes per step", allocated <= BUDGET);
+	}
+
+	@Test
+	public void testGetTimeToCollision_noAllocation() {
+		SpaceObject first = new Asteroid(new Vector(100,100), new Vector(10,0), 20);
+		SpaceObject second = new Asteroid(new Vector(300,100), new Vector(-10,0), 20);
+		double time = 0;
+		for(int i = 0; i < 100000; i++) {time += first.getTimeToCollision(second);}
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		for(int i = 0; i < 100000; i++) {time += first.getTimeToCollision(second);}
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+		assertEquals(16*100000, time, 1e-6);
+		assertTrue(allocated + " bytes", allocated < 1024);
+	}
+
+}
@@ -0,0 +1,80 @@
+package asteroids.test;
+
+import static asteroids.test.WorldComparison.*;
+
+import java.util.*;
+
+import org.junit.*;
+import asteroids.benchmark.Scenarios;
+import asteroids.model.*;
+
+/**
+ * Evolves the same seeded worlds with a spatial hash grid and with the brute force broad phase as a reference,
+ * and checks that both resolve the same collisions and leave the space objects in the same places.
+ * A fine grid with a short horizon registers the large asteroids as sweeping too many cells, and lets the
+ * predictions expire every few steps.
+ */
+public class BroadPhaseTest {
+
+	private static final int STEPS = 60;
+
+	/**
+	 * The number of steps the cluster is evolved, long enough for its asteroids to collide a few dozen times.
+	 */
+	private static final int CLUSTER_STEPS = 180;
+
+	/**
+	 * The broad phases the worlds are evolved with.
+	 */
+	private static enum Mode {
+		BRUTE_FORCE, GRID, FINE_GRID;
+
+		BroadPhase create(World world) {
+			switch(this) {
+				case BRUTE_FORCE: return new BruteForceBroadPhase();
+				case GRID: return new SpatialHashGrid(world.getWorldWidth(), world.getWorldHeight());
+				default: return new SpatialHashGrid(world.getWorldWidth(), world.getWorldHeight(), 5, 0.05);
+			}
+		}
+	}
+
+	/**
+	 * Returns a field of moving asteroids with bullets flying between them, evolved with the given broad phase.
+	 */
+	private static World evolveField(Mode mode)
+	{
+		World world = createFieldWithBullets();
+		world.setBroadPhase(mode.create(world));
+		evolve(world, null, STEPS);
+		return world;
+	}
+
+	/**
+	 * Returns a dense cluster of large asteroids shot at by a ring of ships, evolved with the given broad phase.
+	 */
+	private static World evolveCluster(Mode mode)
+	{
+		List<Ship> fleet = new ArrayList<Ship>();
+		World world = Scenarios.createCluster(100, 16, fleet);
+		world.setBroadPhase(mode.create(world));
+		evolve(world, fleet, CLUSTER_STEPS);
+		return world;
+	}
+
+	@Test
+	public void testField_gridSameAsBruteForce()
+	{
+		World reference = evolveField(Mode.BRUTE_FORCE);
+		assertSameEvolution(reference, evolveField(Mode.GRID));
+		assertSameEvolution(reference, evolveField(Mode.FINE_GRID));
+	}
+
+	@Test
+	public void testCluster_gridSameAsBruteForce()
+	{
+		World reference = evolveCluster(Mode.BRUTE_FORCE);
+		assertSameEvolution(reference, evolveCluster(Mode.GRID));
+		assertSameEvolution(reference, evolveCluster(Mode.FINE_GRID));
+	}
+
+}
@@ -0,0 +1,157 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import asteroids.model.*;
+import asteroids.model.Vector;
+
+/**
+ * Checks the indexed heap behind the collision queue of a world: the order in which collisions come out,
+ * removing a collision through its own handle, clearing the queue and collisions at the same time.
+ */
+public class CollisionQueueTest {
+
+	private CollisionQueue queue;
+	private SpaceObject asteroid;
+
+	@Before
+	public void setUpMutableFixture()
+	{
+		queue = new CollisionQueue();
+		asteroid = new Asteroid(new Vector(100, 100), new Vector(10, 0), 20);
+	}
+
+	private Collision collision(double time)
+	{
+		return new Collision(time, asteroid);
+	}
+
+	/**
+	 * Removes all the collisions from the queue through peek, and returns their times in the order they came out.
+	 */
+	private List<Double> drain()
+	{
+		List<Double> times = new ArrayList<Double>();
+		while(!queue.isEmpty()) {
+			Collision first = queue.peek();
+			times.add(first.getTime());
+			assertTrue(queue.remove(first));
+		}
+		return times;
+	}
+
+	@Test
+	public void testPeek_empty()
+	{
+		assertTrue(queue.isEmpty());
+		assertNull(queue.peek());
+	}
+
+	@Test
+	public void testAdd_peekReturnsEarliest()
+	{
+		Random random = new Random(42);
+		List<Double> expected = new ArrayList<Double>();
+		for(int i = 0; i < 100; i++) {
+			double time = random.nextDouble();
+			expected.add(time);
+			queue.add(collision(time));
+			assertEquals(Collections.min(expected), queue.peek().getTime(), 0);
+		}
+		assertEquals(100, queue.size());
+		Collections.sort(expected);
+		assertEquals(expected, drain());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAdd_alreadyQueued()
+	{
+		Collision collision = collision(1);
+		queue.add(collision);
+		queue.add(collision);
+	}
+
+	@Test
+	public void testRemove_middle()
+	{
+		List<Collision> collisions = new ArrayList<Collision>();
+		for(int i = 0; i < 15; i++) {
+			Collision collision = collision((i*7) % 15);
+			collisions.add(collision);
+			queue.add(collision);
+		}
+		Collision middle = collisions.get(7);
+		assertTrue(queue.contains(middle));
+		assertTrue(queue.remove(middle));
+		assertFalse(queue.contains(middle));
+		assertFalse(queue.remove(middle));
+		assertEquals(14, queue.size());
+		for(Collision collision : collisions) {
+			assertEquals(collision != middle, queue.contains(collision));
+		}
+		List<Double> expected = new ArrayList<Double>();
+		for(Collision collision : collisions) {
+			if(collision != middle) {expected.add(collision.getTime());}
+		}
+		Collections.sort(expected);
+		assertEquals(expected, drain());
+	}
+
+	@Test
+	public void testRemove_notQueued()
+	{
+		queue.add(collision(1));
+		assertFalse(queue.remove(collision(1)));
+		assertEquals(1, queue.size());
+	}
+
+	@Test
+	public void testClear()
+	{
+		List<Collision> collisions = new ArrayList<Collision>();
+		for(int i = 0; i < 10; i++) {
+			Collision collision = collision(i);
+			collisions.add(collision);
+			queue.add(collision);
+		}
+		queue.clear();
+		assertTrue(queue.isEmpty());
+		assertNull(queue.peek());
+		for(Collision collision : collisions) {
+			assertFalse(queue.contains(collision));
+		}
+		for(int i = collisions.size() - 1; i >= 0; i--) {queue.add(collisions.get(i));}
+		assertEquals(10, queue.size());
+		assertSame(collisions.get(0), queue.peek());
+	}
+
+	@Test
+	public void testTies()
+	{
+		Set<Collision> tied = Collections.newSetFromMap(new IdentityHashMap<Collision, Boolean>());
+		for(int i = 0; i < 8; i++) {
+			Collision collision = collision(2);
+			tied.add(collision);
+			queue.add(collision);
+			queue.add(collision(3));
+		}
+		queue.add(collision(1));
+		assertEquals(1, queue.peek().getTime(), 0);
+		queue.remove(queue.peek());
+		Collision removed = tied.iterator().next();
+		assertTrue(queue.remove(removed));
+		tied.remove(removed);
+		while(!tied.isEmpty()) {
+			Collision first = queue.peek();
+			assertEquals(2, first.getTime(), 0);
+			assertTrue(tied.remove(first));
+			queue.remove(first);
+		}
+		assertEquals(8, queue.size());
+		assertEquals(Collections.nCopies(8, 3.0), drain());
+	}
+
+}
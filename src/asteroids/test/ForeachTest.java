@@ -0,0 +1,113 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import asteroids.model.*;
+import asteroids.model.Vector;
+import asteroids.model.programs.*;
+import asteroids.model.programs.Expression.Expression;
+import asteroids.model.programs.Statement.Statement;
+import asteroids.model.programs.parsing.ProgramFactory.ForeachType;
+import asteroids.model.programs.parsing.ProgramFactoryImplementation;
+
+/**
+ * Runs foreach loops in the interpreter on a ship in a world with a known number of ships, asteroids and bullets.
+ */
+public class ForeachTest {
+
+	private Program program;
+	private ProgramFactoryImplementation factory;
+	private Map<String,Type> globals;
+	private Ship ship;
+
+	@Before
+	public void setUpMutableFixture()
+	{
+		program = new Program();
+		factory = new ProgramFactoryImplementation();
+		factory.setProgram(program);
+		globals = new LinkedHashMap<String,Type>();
+		globals.put("e", new EntityT());
+		globals.put("count", new DoubleT());
+		globals.put("radii", new DoubleT());
+		World world = new World(1000, 1000);
+		ship = new Ship(new Vector(500, 500), new Vector(0, 0), 15, 0, 5e15);
+		Ship other = new Ship(new Vector(800, 800), new Vector(0, 0), 25, 0, 5e15);
+		world.addObject(ship);
+		world.addObject(other);
+		world.addObject(new Asteroid(new Vector(100, 100), new Vector(0, 0), 20));
+		world.addObject(new Asteroid(new Vector(300, 100), new Vector(0, 0), 30));
+		world.addObject(new Asteroid(new Vector(100, 300), new Vector(0, 0), 40));
+		world.addObject(new Bullet(new Vector(800, 200), new Vector(0, 0), 3, other));
+	}
+
+	private Expression variable(String name)
+	{
+		return factory.createVariable(0, 0, name);
+	}
+
+	/**
+	 * Returns a loop over the space objects of the given type counting them and summing their radii.
+	 */
+	private Statement countLoop(ForeachType type)
+	{
+		Statement body = factory.createSequence(0, 0, Arrays.asList(
+				factory.createAssignment(0, 0, "count", factory.createAdd(0, 0, variable("count"), factory.createDoubleLiteral(0, 0, 1))),
+				factory.createAssignment(0, 0, "radii", factory.createAdd(0, 0, variable("radii"), factory.createGetRadius(0, 0, variable("e"))))));
+		return factory.createForeach(0, 0, type, "e", body);
+	}
+
+	/**
+	 * Type checks the program with the given statement and executes it once in the interpreter on the ship.
+	 */
+	private ProgramInstance execute(Statement statement)
+	{
+		program.setGlobals(globals);
+		program.setStatement(factory.createSequence(0, 0, Arrays.asList(statement)));
+		program.typeCheck();
+		ProgramInstance instance = new ProgramInstance(program.getCode(), ship, false);
+		instance.execute(1);
+		return instance;
+	}
+
+	private void assertCounted(ForeachType type, double count, double radii)
+	{
+		setUpMutableFixture();
+		ProgramInstance instance = execute(countLoop(type));
+		assertEquals(type.toString(), count, ((DoubleT) instance.getGlobal("count")).getValue(), 0);
+		assertEquals(type.toString(), radii, ((DoubleT) instance.getGlobal("radii")).getValue(), 0);
+	}
+
+	@Test
+	public void testForeach_visitsEverySpaceObjectOfItsType()
+	{
+		assertCounted(ForeachType.SHIP, 2, 40);
+		assertCounted(ForeachType.ASTEROID, 3, 90);
+		assertCounted(ForeachType.BULLET, 1, 3);
+		assertCounted(ForeachType.ANY, 6, 133);
+	}
+
+	@Test
+	public void testForeach_shipWithoutWorld()
+	{
+		ship = new Ship(new Vector(500, 500), new Vector(0, 0), 15, 0, 5e15);
+		ProgramInstance instance = execute(countLoop(ForeachType.ANY));
+		assertEquals(0, ((DoubleT) instance.getGlobal("count")).getValue(), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTypeCheck_variableNotAnEntity()
+	{
+		execute(factory.createForeach(0, 0, ForeachType.SHIP, "count", factory.createSequence(0, 0, new ArrayList<Statement>())));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTypeCheck_actionInBody()
+	{
+		execute(factory.createForeach(0, 0, ForeachType.SHIP, "e", factory.createSequence(0, 0, Arrays.asList(factory.createFire(0, 0)))));
+	}
+
+}
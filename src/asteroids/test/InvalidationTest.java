@@ -0,0 +1,75 @@
+package asteroids.test;
+
+import static asteroids.test.WorldComparison.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import asteroids.benchmark.Scenarios;
+import asteroids.model.*;
+import asteroids.model.World.Invalidation;
+
+/**
+ * Evolves the same seeded worlds with eager and with versioned invalidation of the predicted collisions,
+ * and checks that both resolve the same collisions and leave the space objects in the same places.
+ * The versioned worlds have to discard stale collisions along the way, the eager worlds never find one.
+ */
+public class InvalidationTest {
+
+	private static final int STEPS = 60;
+
+	private static final int CLUSTER_STEPS = 180;
+
+	private static World evolveField(Invalidation invalidation)
+	{
+		World world = createFieldWithBullets();
+		world.setInvalidation(invalidation);
+		evolve(world, null, STEPS);
+		return world;
+	}
+
+	private static World evolveCluster(Invalidation invalidation)
+	{
+		List<Ship> fleet = new ArrayList<Ship>();
+		World world = Scenarios.createCluster(100, 16, fleet);
+		world.setInvalidation(invalidation);
+		evolve(world, fleet, CLUSTER_STEPS);
+		return world;
+	}
+
+	@Test
+	public void testField_versionedSameAsEager()
+	{
+		World eager = evolveField(Invalidation.EAGER);
+		World versioned = evolveField(Invalidation.VERSIONED);
+		assertSameEvolution(eager, versioned);
+		assertEquals(0, eager.getNrOfStaleCollisions());
+		assertTrue(versioned.getNrOfStaleCollisions() > 0);
+	}
+
+	@Test
+	public void testCluster_versionedSameAsEager()
+	{
+		World eager = evolveCluster(Invalidation.EAGER);
+		World versioned = evolveCluster(Invalidation.VERSIONED);
+		assertSameEvolution(eager, versioned);
+		assertEquals(0, eager.getNrOfStaleCollisions());
+		assertTrue(versioned.getNrOfStaleCollisions() > 0);
+	}
+
+	@Test
+	public void testSetInvalidation_switchedWhileEvolving()
+	{
+		World eager = createFieldWithBullets();
+		World switched = createFieldWithBullets();
+		switched.setInvalidation(Invalidation.VERSIONED);
+		evolve(eager, null, STEPS/2);
+		evolve(switched, null, STEPS/2);
+		switched.setInvalidation(Invalidation.EAGER);
+		evolve(eager, null, STEPS/2);
+		evolve(switched, null, STEPS/2);
+		assertSameEvolution(eager, switched);
+	}
+
+}
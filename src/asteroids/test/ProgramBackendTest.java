@@ -0,0 +1,267 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import asteroids.model.*;
+import asteroids.model.Vector;
+import asteroids.model.programs.*;
+import asteroids.model.programs.Expression.Expression;
+import asteroids.model.programs.Statement.Statement;
+import asteroids.model.programs.Statement.standardStatement.For;
+import asteroids.model.programs.parsing.ProgramFactory.ForeachType;
+import asteroids.model.programs.parsing.ProgramFactoryImplementation;
+
+/**
+ * Runs programs both in the interpreter, the reference implementation, and compiled to bytecode, on ships in
+ * worlds built from the same seed, and checks that both execute them the same way.
+ * The programs only compute results that don't depend on the order in which a foreach loop visits space objects,
+ * since two worlds with the same space objects may iterate over them in another order.
+ */
+public class ProgramBackendTest {
+
+	private static final int EXECUTIONS = 40;
+
+	private Program program;
+	private ProgramFactoryImplementation factory;
+	private Map<String,Type> globals;
+
+	/**
+	 * Whether the number of executed statements is compared, which depends on the order of a foreach loop
+	 * if the loop branches on what it visited before.
+	 */
+	private boolean compareStatements;
+
+	/**
+	 * Whether the number of bullets is compared, which depends on the order in which the world visits space objects
+	 * if a new bullet overlaps an older one.
+	 */
+	private boolean compareBullets;
+
+	@BeforeClass
+	public static void setUpImmutableFixture()
+	{
+		Assume.assumeTrue(ProgramCompiler.isAvailable());
+	}
+
+	@Before
+	public void setUpMutableFixture()
+	{
+		program = new Program();
+		factory = new ProgramFactoryImplementation();
+		factory.setProgram(program);
+		globals = new LinkedHashMap<String,Type>();
+		compareStatements = true;
+		compareBullets = true;
+	}
+
+	/**
+	 * Returns a ship in the middle of a world with asteroids on random spots, placed the same way on every call.
+	 */
+	private static Ship createShip()
+	{
+		World world = new World(2000, 2000);
+		Random random = new Random(42);
+		for(int i = 0; i < 30; i++) {
+			Vector position = new Vector(100 + 1800*random.nextDouble(), 100 + 1800*random.nextDouble());
+			Asteroid asteroid = new Asteroid(position, new Vector(0, 0), 20 + 10*random.nextDouble(), random);
+			boolean free = position.getX() < 900 || position.getX() > 1100 || position.getY() < 900 || position.getY() > 1100;
+			for(SpaceObject other : world.getObjects()) {free = free && !other.overlap(asteroid);}
+			if(free) {world.addObject(asteroid);}
+		}
+		Ship ship = new Ship(new Vector(1000, 1000), new Vector(0, 0), 15, 0, 5e15);
+		world.addObject(ship);
+		return ship;
+	}
+
+	/**
+	 * Returns a description of the given value that is the same for equal values in both worlds.
+	 */
+	private static String describe(Type value)
+	{
+		if(value instanceof DoubleT) {return Double.toString(((DoubleT) value).getValue());}
+		if(value instanceof BooleanT) {return Boolean.toString(((BooleanT) value).getValue());}
+		SpaceObject spaceobject = ((EntityT) value).getValue();
+		if(spaceobject == null) {return "null";}
+		return spaceobject.getClass().getSimpleName() + " at " + spaceobject.getXPosition() + ", " + spaceobject.getYPosition();
+	}
+
+	/**
+	 * Type checks the program with the given statement, and checks that the interpreter and the compiled program
+	 * execute it the same way on ships in equal worlds, comparing the variables with the given names.
+	 */
+	private void assertSameExecution(Statement statement, String... compared)
+	{
+		program.setGlobals(globals);
+		program.setStatement(statement);
+		program.typeCheck();
+		Ship interpretedShip = createShip();
+		Ship compiledShip = createShip();
+		ProgramInstance interpreted = new ProgramInstance(program.getCode(), interpretedShip, false);
+		ProgramInstance compiled = new ProgramInstance(program.getCode(), compiledShip, true);
+		assertTrue(program.getCode().getCompilationError(), compiled.isCompiled());
+		for(int i = 0; i < EXECUTIONS; i++) {
+			interpreted.execute(1);
+			compiled.execute(1);
+			String step = "execution " + i + ": ";
+			for(String name : compared) {
+				assertEquals(step + name, describe(interpreted.getGlobal(name)), describe(compiled.getGlobal(name)));
+			}
+			assertEquals(step + "program counter", interpreted.getProgramCounter(), compiled.getProgramCounter());
+			if(compareStatements) {
+				assertEquals(step + "statements", interpreted.getNrOfExecutedStatements(), compiled.getNrOfExecutedStatements());
+			}
+			assertEquals(step + "direction", interpretedShip.getDirection(), compiledShip.getDirection(), 0);
+			assertEquals(step + "thruster", interpretedShip.isThrusterActive(), compiledShip.isThrusterActive());
+			if(compareBullets) {
+				assertEquals(step + "bullets", interpretedShip.getWorld().getBullets().size(), compiledShip.getWorld().getBullets().size());
+			}
+		}
+	}
+
+	private Expression variable(String name)
+	{
+		return factory.createVariable(0, 0, name);
+	}
+
+	private Expression number(double value)
+	{
+		return factory.createDoubleLiteral(0, 0, value);
+	}
+
+	private Statement sequence(Statement... statements)
+	{
+		return factory.createSequence(0, 0, Arrays.asList(statements));
+	}
+
+	@Test
+	public void testNearestAsteroid()
+	{
+		globals.put("a", new EntityT());
+		globals.put("nearest", new EntityT());
+		globals.put("d", new DoubleT());
+		globals.put("best", new DoubleT());
+		globals.put("count", new DoubleT());
+		compareStatements = false;
+		compareBullets = false;
+		Expression dx = factory.createSubtraction(0, 0, factory.createGetX(0, 0, variable("a")), factory.createGetX(0, 0, factory.createSelf(0, 0)));
+		Expression dy = factory.createSubtraction(0, 0, factory.createGetY(0, 0, variable("a")), factory.createGetY(0, 0, factory.createSelf(0, 0)));
+		Statement body = sequence(
+				factory.createAssignment(0, 0, "d", factory.createSqrt(0, 0, factory.createAdd(0, 0, factory.createMul(0, 0, dx, dx), factory.createMul(0, 0, dy, dy)))),
+				factory.createAssignment(0, 0, "count", factory.createAdd(0, 0, variable("count"), number(1))),
+				factory.createIf(0, 0, factory.createLessThan(0, 0, variable("d"), variable("best")),
+						sequence(factory.createAssignment(0, 0, "best", variable("d")), factory.createAssignment(0, 0, "nearest", variable("a"))),
+						sequence()));
+		Statement loop = sequence(
+				factory.createAssignment(0, 0, "best", number(1e10)),
+				factory.createAssignment(0, 0, "count", number(0)),
+				factory.createForeach(0, 0, ForeachType.ASTEROID, "a", body),
+				factory.createTurn(0, 0, factory.createDivision(0, 0, factory.createGetRadius(0, 0, variable("nearest")), number(100))),
+				factory.createFire(0, 0),
+				factory.createEnableThruster(0, 0),
+				factory.createDisableThruster(0, 0));
+		assertSameExecution(sequence(factory.createWhile(0, 0, factory.createBooleanLiteral(0, 0, true), loop)), "nearest", "best", "count");
+	}
+
+	@Test
+	public void testLoopsAndBranches()
+	{
+		globals.put("x", new DoubleT());
+		globals.put("y", new DoubleT());
+		globals.put("b", new BooleanT());
+		Statement body = sequence(
+				factory.createAssignment(0, 0, "x", factory.createAdd(0, 0, variable("x"), number(1))),
+				factory.createAssignment(0, 0, "b", factory.createEquality(0, 0,
+						factory.createGreaterThan(0, 0, variable("x"), number(5)), factory.createLessThanOrEqualTo(0, 0, variable("x"), number(9)))),
+				factory.createIf(0, 0, variable("b"),
+						sequence(factory.createSkip(0, 0), factory.createAssignment(0, 0, "y", factory.createMul(0, 0, variable("y"), number(0.5)))),
+						sequence(factory.createAssignment(0, 0, "y", factory.createAdd(0, 0, variable("y"), variable("x"))))),
+				new For(0, 0, program, number(2.5), sequence(factory.createTurn(0, 0, number(0.25)))));
+		Statement loop = factory.createWhile(0, 0, factory.createLessThan(0, 0, variable("x"), number(12)), body);
+		assertSameExecution(sequence(loop, factory.createAssignment(0, 0, "y", number(-1)), factory.createFire(0, 0)), "x", "y", "b");
+	}
+
+	@Test
+	public void testEntityComparisons()
+	{
+		globals.put("s", new EntityT());
+		globals.put("others", new DoubleT());
+		globals.put("selves", new DoubleT());
+		Statement body = sequence(
+				factory.createIf(0, 0, factory.createInequality(0, 0, variable("s"), factory.createSelf(0, 0)),
+						sequence(factory.createAssignment(0, 0, "others", factory.createAdd(0, 0, variable("others"), number(1)))),
+						sequence(factory.createAssignment(0, 0, "selves", factory.createAdd(0, 0, variable("selves"), number(1))))));
+		Statement loop = sequence(
+				factory.createForeach(0, 0, ForeachType.ANY, "s", body),
+				factory.createIf(0, 0, factory.createEquality(0, 0, factory.createNull(0, 0), factory.createSelf(0, 0)),
+						sequence(factory.createTurn(0, 0, number(1))), sequence(factory.createFire(0, 0))));
+		assertSameExecution(sequence(factory.createWhile(0, 0, factory.createBooleanLiteral(0, 0, true), loop)), "others", "selves");
+	}
+
+	@Test
+	public void testBusyLoop_suspendedAtBudget()
+	{
+		globals.put("x", new DoubleT());
+		Statement busy = factory.createWhile(0, 0, factory.createBooleanLiteral(0, 0, true),
+				sequence(factory.createAssignment(0, 0, "x", factory.createAdd(0, 0, variable("x"), number(1)))));
+		program.setGlobals(globals);
+		program.setStatement(sequence(busy));
+		program.typeCheck();
+		for(boolean compiled : new boolean[] {false, true}) {
+			ProgramInstance instance = new ProgramInstance(program.getCode(), createShip(), compiled);
+			instance.setBudget(1000);
+			instance.execute(1);
+			assertEquals(1, instance.getNrOfSuspensions());
+			assertEquals(1000, instance.getNrOfExecutedStatements());
+			assertEquals(500, ((DoubleT) instance.getGlobal("x")).getValue(), 0);
+			instance.execute(3);
+			assertEquals(2, instance.getNrOfSuspensions());
+			assertEquals(1000, ((DoubleT) instance.getGlobal("x")).getValue(), 0);
+		}
+	}
+
+	@Test
+	public void testTypeCheck_codeHandedOutUnchanged()
+	{
+		globals.put("x", new DoubleT());
+		globals.put("y", new DoubleT(3));
+		globals.put("z", new DoubleT());
+		Statement body = sequence(
+				factory.createAssignment(0, 0, "x", factory.createAdd(0, 0, variable("x"), factory.createSqrt(0, 0, factory.createAdd(0, 0, factory.createMul(0, 0, variable("y"), variable("y")), number(7))))),
+				factory.createAssignment(0, 0, "z", factory.createAdd(0, 0, variable("z"), factory.createSqrt(0, 0, factory.createAdd(0, 0, factory.createMul(0, 0, variable("y"), variable("y")), number(7))))),
+				factory.createFire(0, 0));
+		program.setGlobals(globals);
+		program.setStatement(sequence(factory.createWhile(0, 0, factory.createBooleanLiteral(0, 0, true), body)));
+		ProgramInstance unchecked = new ProgramInstance(program.getCode(), createShip(), false);
+		ProgramCode uncheckedCode = program.getCode();
+		int uncheckedSlots = uncheckedCode.getNrOfSlots();
+		program.typeCheck();
+		assertTrue(program.getCode().getNrOfSlots() > uncheckedSlots);
+		assertNotSame(uncheckedCode, program.getCode());
+		assertNotSame(uncheckedCode.getStatement(), program.getCode().getStatement());
+		assertEquals(uncheckedSlots, uncheckedCode.getNrOfSlots());
+		ProgramInstance checked = new ProgramInstance(program.getCode(), createShip(), false);
+		for(int i = 0; i < 4; i++) {
+			unchecked.execute(1);
+			checked.execute(1);
+			assertEquals(4*(i + 1), ((DoubleT) unchecked.getGlobal("z")).getValue(), 0);
+			assertEquals(4*(i + 1), ((DoubleT) checked.getGlobal("z")).getValue(), 0);
+		}
+	}
+
+	@Test
+	public void testUncheckedProgram_interpreted()
+	{
+		globals.put("x", new DoubleT());
+		program.setGlobals(globals);
+		program.setStatement(sequence(factory.createAssignment(0, 0, "x", number(1))));
+		ProgramInstance instance = new ProgramInstance(program.getCode(), createShip(), true);
+		assertFalse(instance.isCompiled());
+		assertNotNull(program.getCode().getCompilationError());
+		instance.execute(1);
+		assertEquals(1, ((DoubleT) instance.getGlobal("x")).getValue(), 0);
+	}
+
+}
@@ -0,0 +1,148 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.*;
+import asteroids.IFacade.ParseOutcome;
+import asteroids.model.*;
+import asteroids.model.programs.*;
+
+/**
+ * Parses programs through a program cache, and checks that the cache parses every text once and hands out
+ * programs that share the checked code of the text, but not their globals.
+ */
+public class ProgramCacheTest {
+
+	private static final String PROGRAM = "double x;\nx := 1;\nwhile(true) do {\n  x := (x + 1);\n  fire;\n}\n";
+
+	private static final String INVALID = "double x;\nx := ;\n";
+
+	private static final String ILLTYPED = "double x;\ny := 1;\n";
+
+	private ProgramCache cache;
+
+	@Before
+	public void setUpMutableFixture()
+	{
+		cache = new ProgramCache(2);
+	}
+
+	@Test
+	public void testParse_sameTextParsedOnce()
+	{
+		ParseOutcome<Program> first = cache.parse(PROGRAM);
+		ParseOutcome<Program> second = cache.parse(PROGRAM);
+		assertTrue(first.isSuccessful());
+		assertTrue(second.isSuccessful());
+		assertEquals(1, cache.getNrOfMisses());
+		assertEquals(1, cache.getNrOfHits());
+		assertNotSame(first.getProgram(), second.getProgram());
+		assertSame(first.getProgram().getCode(), second.getProgram().getCode());
+		assertTrue(first.getProgram().getCode().isTypeChecked());
+		assertEquals(first.getProgram().getGlobals().keySet(), second.getProgram().getGlobals().keySet());
+	}
+
+	@Test
+	public void testParse_programsIndependent()
+	{
+		Program changed = cache.parse(PROGRAM).getProgram();
+		ProgramCode shared = changed.getCode();
+		changed.setGlobal("x", new DoubleT(100));
+		changed.typeCheck();
+		Program other = cache.parse(PROGRAM).getProgram();
+		assertEquals(0, ((DoubleT) other.getGlobal("x")).getValue(), 0);
+		assertNotSame(shared, changed.getCode());
+		assertSame(shared, other.getCode());
+		assertEquals(0, ((DoubleT) shared.getGlobals().get("x")).getValue(), 0);
+		other.typeCheck();
+		assertEquals(changed.getNrOfNodes(), other.getNrOfNodes());
+	}
+
+	@Test
+	public void testParse_failureCached()
+	{
+		ParseOutcome<Program> first = cache.parse(INVALID);
+		ParseOutcome<Program> second = cache.parse(INVALID);
+		assertFalse(first.isSuccessful());
+		assertFalse(second.isSuccessful());
+		assertEquals(first.getMessage(), second.getMessage());
+		assertEquals(1, cache.getNrOfMisses());
+		assertEquals(1, cache.getNrOfHits());
+	}
+
+	@Test
+	public void testParse_typeErrorCached()
+	{
+		Program first = cache.parse(ILLTYPED).getProgram();
+		Program second = cache.parse(ILLTYPED).getProgram();
+		String message = null;
+		try {
+			first.typeCheck();
+			fail();
+		}
+		catch(IllegalArgumentException illtyped) {message = illtyped.getMessage();}
+		assertNotNull(message);
+		try {
+			second.typeCheck();
+			fail();
+		}
+		catch(IllegalArgumentException illtyped) {assertEquals(message, illtyped.getMessage());}
+		assertFalse(second.getCode().isTypeChecked());
+		second.setGlobal("y", new DoubleT());
+		second.typeCheck();
+		assertTrue(second.getCode().isTypeChecked());
+	}
+
+	@Test
+	public void testParse_concurrentlyParsedOnce() throws Exception
+	{
+		final int threads = 8;
+		final CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<ParseOutcome<Program>>> outcomes = new ArrayList<Future<ParseOutcome<Program>>>();
+			for(int i = 0; i < threads; i++) {
+				outcomes.add(executor.submit(new Callable<ParseOutcome<Program>>() {
+					@Override
+					public ParseOutcome<Program> call() throws InterruptedException {
+						start.await();
+						return cache.parse(PROGRAM);
+					}
+				}));
+			}
+			start.countDown();
+			ProgramCode code = outcomes.get(0).get().getProgram().getCode();
+			for(Future<ParseOutcome<Program>> outcome : outcomes) {
+				assertSame(code, outcome.get().getProgram().getCode());
+			}
+		}
+		finally {executor.shutdown();}
+		assertEquals(1, cache.getNrOfMisses());
+		assertEquals(threads - 1, cache.getNrOfHits());
+	}
+
+	@Test
+	public void testParse_leastRecentlyParsedEvicted()
+	{
+		cache.parse(PROGRAM);
+		cache.parse(INVALID);
+		cache.parse(PROGRAM);
+		cache.parse("double y;\ny := 2;\n");
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getNrOfEvictions());
+		cache.parse(PROGRAM);
+		assertEquals(2, cache.getNrOfHits());
+		cache.parse(INVALID);
+		assertEquals(4, cache.getNrOfMisses());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructor_illegalCapacity()
+	{
+		new ProgramCache(0);
+	}
+
+}
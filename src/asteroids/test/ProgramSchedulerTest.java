@@ -0,0 +1,102 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import asteroids.model.*;
+import asteroids.model.Vector;
+import asteroids.model.programs.*;
+import asteroids.model.programs.Expression.Expression;
+import asteroids.model.programs.Statement.Statement;
+import asteroids.model.programs.parsing.ProgramFactory.ForeachType;
+import asteroids.model.programs.parsing.ProgramFactoryImplementation;
+
+/**
+ * Runs a fleet of ships counting the bullets in their world, firing and turning by the count, all due at the same
+ * times, and checks that the programs don't see the bullets fired in the same tick, whether they execute in parallel
+ * or one after the other.
+ */
+public class ProgramSchedulerTest {
+
+	private static final int SHIPS = 16;
+
+	private Program program;
+
+	@Before
+	public void setUpMutableFixture()
+	{
+		program = new Program();
+		ProgramFactoryImplementation factory = new ProgramFactoryImplementation();
+		factory.setProgram(program);
+		Map<String,Type> globals = new LinkedHashMap<String,Type>();
+		globals.put("count", new DoubleT());
+		globals.put("b", new EntityT());
+		Expression count = factory.createVariable(0, 0, "count");
+		Statement loop = factory.createSequence(0, 0, Arrays.asList(
+				factory.createAssignment(0, 0, "count", factory.createDoubleLiteral(0, 0, 0)),
+				factory.createForeach(0, 0, ForeachType.BULLET, "b", factory.createSequence(0, 0, Arrays.asList(
+						factory.createAssignment(0, 0, "count", factory.createAdd(0, 0, count, factory.createDoubleLiteral(0, 0, 1)))))),
+				factory.createFire(0, 0),
+				factory.createTurn(0, 0, factory.createDivision(0, 0, count, factory.createDoubleLiteral(0, 0, 100)))));
+		program.setGlobals(globals);
+		program.setStatement(factory.createSequence(0, 0, Arrays.asList(
+				factory.createWhile(0, 0, factory.createBooleanLiteral(0, 0, true), loop))));
+		program.typeCheck();
+	}
+
+	/**
+	 * Returns a fleet of ships far apart in a new world, all executing the program at the same times.
+	 */
+	private List<Ship> createFleet(boolean parallel)
+	{
+		World world = new World(4000, 4000);
+		world.getScheduler().setParallel(parallel);
+		List<Ship> fleet = new ArrayList<Ship>();
+		for(int i = 0; i < SHIPS; i++) {
+			Ship ship = new Ship(new Vector(400 + 800*(i % 4), 400 + 800*(i / 4)), new Vector(0, 0), 15, 0.4*i, 5e15);
+			ship.setProgramPhase(0);
+			ship.setProgram(program);
+			world.addObject(ship);
+			fleet.add(ship);
+		}
+		return fleet;
+	}
+
+	private static double getCount(Ship ship)
+	{
+		return ((DoubleT) ship.getProgramInstance().getGlobal("count")).getValue();
+	}
+
+	@Test
+	public void testFirstExecution_noBulletsOfSameTickSeen()
+	{
+		for(boolean parallel : new boolean[] {false, true}) {
+			List<Ship> fleet = createFleet(parallel);
+			World world = fleet.get(0).getWorld();
+			for(int tick = 0; tick < 15; tick++) {world.evolve(1.0/60);}
+			assertEquals(SHIPS, world.getScheduler().getNrOfExecutions());
+			assertFalse(world.getBullets().isEmpty());
+			for(Ship ship : fleet) {assertEquals(0, getCount(ship), 0);}
+		}
+	}
+
+	@Test
+	public void testParallel_sameAsSequential()
+	{
+		List<Ship> sequential = createFleet(false);
+		List<Ship> parallel = createFleet(true);
+		for(int tick = 0; tick < 60; tick++) {
+			sequential.get(0).getWorld().evolve(1.0/60);
+			parallel.get(0).getWorld().evolve(1.0/60);
+			for(int i = 0; i < SHIPS; i++) {
+				String step = "tick " + tick + ", ship " + i + ": ";
+				assertEquals(step + "count", getCount(sequential.get(i)), getCount(parallel.get(i)), 0);
+				assertEquals(step + "direction", sequential.get(i).getDirection(), parallel.get(i).getDirection(), 0);
+				assertEquals(step + "bullets", sequential.get(i).getNrOfLiveBullets(), parallel.get(i).getNrOfLiveBullets());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package asteroids.test;
+
+import static asteroids.test.WorldComparison.*;
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import org.junit.*;
+import asteroids.benchmark.Scenarios;
+import asteroids.model.*;
+import asteroids.model.Vector;
+
+/**
+ * Evolves the same seeded worlds with the space objects holding their own state and with a space object store,
+ * and checks the entity ids the store hands out as space objects leave it.
+ */
+public class StoreTest {
+
+	private static final int STEPS = 60;
+
+	/**
+	 * The number of steps the cluster is evolved, long enough for its asteroids to collide a few dozen times.
+	 */
+	private static final int CLUSTER_STEPS = 180;
+
+	private World world;
+	private Asteroid first;
+	private Asteroid second;
+	private Asteroid third;
+
+	@Before
+	public void setUpMutableFixture()
+	{
+		world = new World(1000, 1000);
+		world.setStoreBacked(true);
+		first = new Asteroid(new Vector(100, 100), new Vector(10, 0), 20);
+		second = new Asteroid(new Vector(300, 300), new Vector(0, 10), 30);
+		third = new Asteroid(new Vector(500, 500), new Vector(-10, -5), 40);
+		world.addObject(first);
+		world.addObject(second);
+		world.addObject(third);
+	}
+
+	private static World evolveField(boolean storeBacked)
+	{
+		World world = createFieldWithBullets();
+		world.setStoreBacked(storeBacked);
+		evolve(world, null, STEPS);
+		return world;
+	}
+
+	private static World evolveCluster(boolean storeBacked)
+	{
+		List<Ship> fleet = new ArrayList<Ship>();
+		World world = Scenarios.createCluster(100, 16, fleet);
+		world.setStoreBacked(storeBacked);
+		evolve(world, fleet, CLUSTER_STEPS);
+		return world;
+	}
+
+	@Test
+	public void testField_storeSameAsObjects()
+	{
+		assertSameEvolution(evolveField(false), evolveField(true));
+	}
+
+	@Test
+	public void testCluster_storeSameAsObjects()
+	{
+		assertSameEvolution(evolveCluster(false), evolveCluster(true));
+	}
+
+	@Test
+	public void testRemove_lastTakesOverId()
+	{
+		SpaceObjectStore store = world.getSpaceObjectStore();
+		assertEquals(3, store.size());
+		world.evolve(1);
+		world.removeObject(first);
+		assertEquals(2, store.size());
+		assertSame(third, store.getObject(0));
+		assertSame(second, store.getObject(1));
+		assertEquals(third.getRadius(), store.getRadius(0), 0);
+		assertEquals(SpaceObjectStore.ASTEROID, store.getType(0));
+		world.evolve(1);
+		assertEquals(480, third.getXPosition(), 1e-9);
+		assertEquals(490, third.getYPosition(), 1e-9);
+		assertEquals(-10, third.getXVelocity(), 0);
+		assertEquals(300, second.getXPosition(), 1e-9);
+		assertEquals(320, second.getYPosition(), 1e-9);
+	}
+
+	@Test
+	public void testRemove_last()
+	{
+		SpaceObjectStore store = world.getSpaceObjectStore();
+		world.removeObject(third);
+		assertEquals(2, store.size());
+		assertSame(first, store.getObject(0));
+		assertSame(second, store.getObject(1));
+	}
+
+	@Test
+	public void testTerminate_detachesObjects()
+	{
+		SpaceObjectStore store = world.getSpaceObjectStore();
+		world.evolve(1);
+		world.terminate();
+		assertEquals(0, store.size());
+		assertFalse(world.isStoreBacked());
+		assertEquals(490, third.getXPosition(), 1e-9);
+		assertEquals(495, third.getYPosition(), 1e-9);
+		assertEquals(-10, third.getXVelocity(), 0);
+	}
+
+}
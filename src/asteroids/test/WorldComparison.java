@@ -0,0 +1,103 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.*;
+
+import asteroids.benchmark.Scenarios;
+import asteroids.model.*;
+import asteroids.model.Vector;
+
+/**
+ * Compares worlds evolved from the same seed in different modes: they have to resolve the same number of
+ * collisions and end up with space objects of the same kinds and sizes in the same places.
+ */
+final class WorldComparison {
+
+	private WorldComparison() {}
+
+	/**
+	 * The duration of an evolve step (in seconds).
+	 */
+	static final double TIME_STEP = 1/60.0;
+
+	/**
+	 * Returns a field of 100 moving asteroids with 25 bullets flying between them in random directions.
+	 */
+	static World createFieldWithBullets()
+	{
+		World world = Scenarios.createAsteroidField(100, 20, false, null);
+		Ship source = new Ship(new Vector(0, 0), new Vector(0, 0), 10, 0, 5e15);
+		Random random = new Random(Scenarios.SEED);
+		for(int i = 1; i < 10; i += 2) {
+			for(int j = 1; j < 10; j += 2) {
+				double angle = 2*Math.PI*random.nextDouble();
+				Vector position = new Vector(i*Scenarios.SPACING, j*Scenarios.SPACING);
+				world.addObject(new Bullet(position, new Vector(250*Math.cos(angle), 250*Math.sin(angle)), 3, source));
+			}
+		}
+		return world;
+	}
+
+	/**
+	 * Evolves the given world over the given number of steps. Before every step, the ships of the given fleet
+	 * that are still alive fire a bullet.
+	 * @param fleet
+	 * 		  The ships firing. May be null.
+	 */
+	static void evolve(World world, List<Ship> fleet, int steps)
+	{
+		for(int step = 0; step < steps; step++) {
+			if(fleet != null) {
+				for(Ship ship : fleet) {
+					if(!ship.isTerminated()) {ship.fireBullet();}
+				}
+			}
+			world.evolve(TIME_STEP);
+		}
+	}
+
+	/**
+	 * The distance (in km) by which the positions of the same space object may differ.
+	 */
+	static final double EPSILON = 1e-6;
+
+	/**
+	 * Returns the kind, radius and position of every space object in the given world, in a fixed order.
+	 */
+	static List<double[]> getState(World world)
+	{
+		List<double[]> state = new ArrayList<double[]>();
+		for(SpaceObject spaceobject : world.getObjects()) {
+			double kind = spaceobject instanceof Ship ? 0 : spaceobject instanceof Asteroid ? 1 : 2;
+			state.add(new double[] {kind, spaceobject.getRadius(), spaceobject.getXPosition(), spaceobject.getYPosition()});
+		}
+		Collections.sort(state, new Comparator<double[]>() {
+			@Override
+			public int compare(double[] first, double[] second) {
+				for(int i = 0; i < first.length; i++) {
+					int result = Double.compare(first[i], second[i]);
+					if(result != 0) {return result;}
+				}
+				return 0;
+			}
+		});
+		return state;
+	}
+
+	/**
+	 * Checks that the given worlds resolved the same, positive number of collisions and hold the same space objects.
+	 */
+	static void assertSameEvolution(World expected, World actual)
+	{
+		assertTrue(expected.getNrOfResolvedCollisions() > 0);
+		assertEquals(expected.getNrOfResolvedCollisions(), actual.getNrOfResolvedCollisions());
+		List<double[]> expectedState = getState(expected);
+		List<double[]> actualState = getState(actual);
+		assertEquals(expectedState.size(), actualState.size());
+		for(int i = 0; i < expectedState.size(); i++) {
+			assertArrayEquals("space object " + i, expectedState.get(i), actualState.get(i), EPSILON);
+		}
+	}
+
+}
@@ -71,6 +71,39 @@ public class WorldTest {
 		assertEquals(0, world.getObjects().size());
 	}
 
+	@Test
+	public void testEvolve_thrustAtEveryCollision() {
+		Ship thrusting = new Ship(new Vector(500,500), new Vector(0,0), 10, 0, 1.1e17);
+		thrusting.setThrusterActive(true);
+		world.addObject(thrusting);
+		world.addObject(new Asteroid(new Vector(100,100), new Vector(10,0), 10));
+		world.addObject(new Asteroid(new Vector(150,100), new Vector(-10,0), 10));
+		world.evolve(2);
+		assertEquals(1, world.getNrOfResolvedCollisions());
+		// The asteroids collide after 1.5 seconds, from then on the ship moves at the speed it thrusted to by then.
+		assertEquals(500 + 10*1.5*0.5, thrusting.getXPosition(), 1e-9);
+		assertEquals(10*2, thrusting.getXVelocity(), 1e-9);
+	}
+
+	@Test
+	public void testGetNrOfBulletsFrom_shipInOtherWorld() {
+		Ship shooter = new Ship(new Vector(100,100), new Vector(0,0), 10, 0, 1e16);
+		world.addObject(shooter);
+		world.addObject(new Bullet(new Vector(300,100), new Vector(0,0), 3, shooter));
+		world.addObject(new Bullet(new Vector(300,300), new Vector(0,0), 3, shooter));
+		world.removeObject(shooter);
+		World other = new World(1024,768);
+		other.addObject(shooter);
+		assertEquals(2, world.getNrOfBulletsFrom(shooter));
+		assertEquals(0, other.getNrOfBulletsFrom(shooter));
+		assertEquals(0, shooter.getNrOfLiveBullets());
+		other.addObject(new Bullet(new Vector(500,300), new Vector(0,0), 3, shooter));
+		assertEquals(1, shooter.getNrOfLiveBullets());
+		world.terminate();
+		assertEquals(0, world.getNrOfBulletsFrom(shooter));
+		assertEquals(1, other.getNrOfBulletsFrom(shooter));
+	}
+
 	@Test (expected=IllegalArgumentException.class)
 	public void testRemoveObject_IfNull() {
 		world.removeObject(null);